@@ -0,0 +1,67 @@
+package me.Flibio.EconomyLite.API;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+class AccountCache<K, V> {
+
+	private final int maxSize;
+	private LinkedHashMap<K, WeakReference<V>> accounts;
+
+	/**
+	 * Remembers account handles so repeated lookups return the same object.
+	 *
+	 * Handles are only weakly referenced, an account nobody holds on to can be collected,
+	 * and once the cache is full the least recently used handle is dropped.
+	 * @param maxSize
+	 * 	Most handles to keep
+	 */
+	AccountCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.accounts = new LinkedHashMap<K, WeakReference<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, WeakReference<V>> eldest) {
+				return size()>AccountCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Gets a cached handle
+	 * @param key
+	 * 	UUID or business name of the account
+	 * @return
+	 * 	The handle(null if it is not cached or was collected)
+	 */
+	synchronized V get(K key) {
+		WeakReference<V> ref = accounts.get(key);
+		if(ref==null) return null;
+		V account = ref.get();
+		if(account==null) accounts.remove(key);
+		return account;
+	}
+
+	/**
+	 * Caches a handle
+	 * @param key
+	 * 	UUID or business name of the account
+	 * @param account
+	 * 	The handle to cache
+	 */
+	synchronized void put(K key, V account) {
+		accounts.put(key, new WeakReference<V>(account));
+	}
+
+	/**
+	 * Drops every handle whose key matches, used when accounts are deleted
+	 * @param matcher
+	 * 	Picks the keys to drop
+	 */
+	synchronized void removeIf(Predicate<K> matcher) {
+		accounts.keySet().removeIf(matcher);
+	}
+}
@@ -0,0 +1,42 @@
+package me.Flibio.EconomyLite.API;
+
+import org.spongepowered.api.service.economy.account.Account;
+
+import java.math.BigDecimal;
+
+public class BalanceDelta {
+
+	private Account account;
+	private BigDecimal amount;
+
+	/**
+	 * One entry of a batch of balance changes
+	 * @param account
+	 * 	The account to change
+	 * @param amount
+	 * 	Amount to add to the account(negative to remove)
+	 */
+	public BalanceDelta(Account account, BigDecimal amount) {
+		this.account = account;
+		this.amount = amount;
+	}
+
+	/**
+	 * Gets the account which will be changed
+	 * @return
+	 * 	The account to change
+	 */
+	public Account getAccount() {
+		return this.account;
+	}
+
+	/**
+	 * Gets the amount which will be added to the account
+	 * @return
+	 * 	Amount to add(negative to remove)
+	 */
+	public BigDecimal getAmount() {
+		return this.amount;
+	}
+
+}
@@ -6,16 +6,16 @@ import me.Flibio.EconomyLite.Utils.PlayerManager;
 
 public class EconomyLiteAPI {
 
-	private BusinessManager businessAPI = new BusinessManager();
+	private BusinessManager businessAPI = EconomyLite.getBusinessManager();
 
-	private PlayerManager playerAPI = new PlayerManager();
+	private PlayerManager playerAPI = EconomyLite.getPlayerManager();
 	
 	/**
 	 * EconomyLite's API. 
 	 * 
 	 * Methods will query a MySQL Database if the EconomyLite user has opted to save data to a database. 
 	 * 
-	 * If possible, you should run these methods in a seperate thread.
+	 * If possible, you should run these methods in a seperate thread, or use EconomyLiteAsyncAPI.
 	 */
 	public EconomyLiteAPI() {
 		if(!EconomyLite.optionEnabled("businesses")) {
@@ -0,0 +1,177 @@
+package me.Flibio.EconomyLite.API;
+
+import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.Utils.BusinessManager;
+import me.Flibio.EconomyLite.Utils.PlayerManager;
+
+import org.spongepowered.api.event.cause.Cause;
+import org.spongepowered.api.service.economy.transaction.TransactionResult;
+import org.spongepowered.api.service.economy.transaction.TransferResult;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class EconomyLiteAsyncAPI {
+
+	//More threads would only wait on the connection pool
+	private static final int THREADS = 4;
+	//Most tasks that can wait for a thread before new ones are rejected
+	private static final int QUEUE_SIZE = 10000;
+
+	private ThreadPoolExecutor ioExecutor;
+	private Executor mainThread;
+	private PlayerManager playerManager = EconomyLite.getPlayerManager();
+	private BusinessManager businessManager = EconomyLite.getBusinessManager();
+
+	/**
+	 * Non-blocking version of EconomyLite's API.
+	 *
+	 * Every method runs on EconomyLite's own I/O threads and returns right away. The returned
+	 * futures are completed on the main server thread, so callbacks can safely use the game.
+	 */
+	public EconomyLiteAsyncAPI() {
+		AtomicInteger threadCount = new AtomicInteger();
+		this.ioExecutor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), runnable -> {
+			Thread thread = new Thread(runnable, "EconomyLite-IO-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.mainThread = runnable -> EconomyLite.access.game.getScheduler().createTaskBuilder().execute(runnable).submit(EconomyLite.access);
+	}
+
+	/**
+	 * Gets the balance of a player
+	 * @param uuid
+	 * 	UUID of the player whose balance to get
+	 * @return
+	 * 	The player's balance(-1 if an error occurred)
+	 */
+	public CompletableFuture<Long> getBalanceAsync(UUID uuid) {
+		return submit(() -> playerManager.getBalance(uuid.toString()));
+	}
+
+	/**
+	 * Sets the balance of a player
+	 * @param uuid
+	 * 	UUID of the player whose balance to set
+	 * @param balance
+	 * 	The new balance, in the smallest unit of currency
+	 * @return
+	 * 	If the balance was set successfully
+	 */
+	public CompletableFuture<Boolean> setBalanceAsync(UUID uuid, long balance) {
+		return submit(() -> playerManager.setBalance(uuid.toString(), balance));
+	}
+
+	/**
+	 * Adds currency to a player's balance
+	 * @param uuid
+	 * 	UUID of the player to give currency to
+	 * @param amount
+	 * 	Amount of currency to add, in the smallest unit of currency
+	 * @return
+	 * 	If the currency was added successfully
+	 */
+	public CompletableFuture<Boolean> depositAsync(UUID uuid, long amount) {
+		return submit(() -> playerManager.addCurrency(uuid.toString(), amount));
+	}
+
+	/**
+	 * Removes currency from a player's balance
+	 * @param uuid
+	 * 	UUID of the player to take currency from
+	 * @param amount
+	 * 	Amount of currency to remove, in the smallest unit of currency
+	 * @return
+	 * 	If the currency was removed successfully
+	 */
+	public CompletableFuture<Boolean> withdrawAsync(UUID uuid, long amount) {
+		return submit(() -> playerManager.removeCurrency(uuid.toString(), amount));
+	}
+
+	/**
+	 * Moves currency from one player to another in a single step
+	 * @param from
+	 * 	UUID of the player paying
+	 * @param to
+	 * 	UUID of the player being paid
+	 * @param amount
+	 * 	Amount of currency to transfer, in the smallest unit of currency
+	 * @return
+	 * 	Result of the transfer
+	 */
+	public CompletableFuture<TransferResult> transferAsync(UUID from, UUID to, long amount) {
+		return submit(() -> new LiteUniqueAccount(from).transfer(new LiteUniqueAccount(to), EconomyLite.getCurrency(),
+				MinorUnits.toDecimal(amount), Cause.of("EconomyLite")));
+	}
+
+	/**
+	 * Gets the balance of a business
+	 * @param businessName
+	 * 	Name of the business whose balance to get
+	 * @return
+	 * 	The business' balance(-1 if an error occurred)
+	 */
+	public CompletableFuture<Long> getBusinessBalanceAsync(String businessName) {
+		return submit(() -> businessManager.getBusinessBalance(businessName));
+	}
+
+	/**
+	 * Applies many balance changes at once
+	 * @param deltas
+	 * 	The accounts to change and the amount to add to each
+	 * @return
+	 * 	The result of every entry, in the same order as the entries were given
+	 */
+	public CompletableFuture<List<TransactionResult>> applyBatchAsync(List<BalanceDelta> deltas) {
+		return submit(() -> ((LiteEconomyService) EconomyLite.getService()).applyBatch(deltas));
+	}
+
+	/**
+	 * Runs any EconomyLite call on the I/O threads
+	 * @param task
+	 * 	The call to run, for example one of the PlayerManager or BusinessManager methods
+	 * @return
+	 * 	Future which is completed on the main thread with the result of the call
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		try {
+			ioExecutor.execute(() -> {
+				try {
+					T result = task.get();
+					mainThread.execute(() -> future.complete(result));
+				} catch(Throwable t) {
+					mainThread.execute(() -> future.completeExceptionally(t));
+				}
+			});
+		} catch(RejectedExecutionException e) {
+			//Too much work is queued up
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Finishes every queued task and stops the I/O threads
+	 */
+	public void shutdown() {
+		ioExecutor.shutdown();
+		try {
+			if(!ioExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+				EconomyLite.access.logger.error("Some EconomyLite tasks did not finish before shutdown!");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
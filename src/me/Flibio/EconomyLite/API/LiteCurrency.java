@@ -1,6 +1,7 @@
 package me.Flibio.EconomyLite.API;
 
 import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.Utils.FixedPoint;
 
 import org.spongepowered.api.service.economy.Currency;
 import org.spongepowered.api.text.Text;
@@ -16,7 +17,7 @@ public class LiteCurrency implements Currency {
 
 	@Override
 	public int getDefaultFractionDigits() {
-		return 0;
+		return FixedPoint.getFractionDigits();
 	}
 
 	@Override
@@ -40,12 +41,13 @@ public class LiteCurrency implements Currency {
 	}
 
 	@Override
-	public Text format(BigDecimal amount, int arg1) {
-		int rounded = amount.setScale(0, RoundingMode.HALF_UP).intValue();
-		if(rounded==1) { 
-			return Text.of(rounded," ",EconomyLite.access.currencySingular);
+	public Text format(BigDecimal amount, int numFractionDigits) {
+		//Formatted from the BigDecimal itself, so amounts too big to store still show and any number of digits can be asked for
+		BigDecimal rounded = amount.setScale(Math.max(0, numFractionDigits), RoundingMode.HALF_UP);
+		if(rounded.compareTo(BigDecimal.ONE)==0) {
+			return Text.of(rounded.toPlainString()," ",EconomyLite.access.currencySingular);
 		} else {
-			return Text.of(rounded," ",EconomyLite.access.currencyPlural);
+			return Text.of(rounded.toPlainString()," ",EconomyLite.access.currencyPlural);
 		}
 	}
 
@@ -1,24 +1,42 @@
 package me.Flibio.EconomyLite.API;
 
 import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.Events.BatchTransactionEvent;
 import me.Flibio.EconomyLite.Utils.BusinessManager;
+import me.Flibio.EconomyLite.Utils.FixedPoint;
 import me.Flibio.EconomyLite.Utils.PlayerManager;
+import me.Flibio.EconomyLite.Utils.TransferEngine.AccountType;
 
+import org.spongepowered.api.Sponge;
 import org.spongepowered.api.service.context.ContextCalculator;
 import org.spongepowered.api.service.economy.Currency;
 import org.spongepowered.api.service.economy.EconomyService;
 import org.spongepowered.api.service.economy.account.Account;
 import org.spongepowered.api.service.economy.account.UniqueAccount;
+import org.spongepowered.api.service.economy.transaction.ResultType;
+import org.spongepowered.api.service.economy.transaction.TransactionResult;
+import org.spongepowered.api.service.economy.transaction.TransactionTypes;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
 public class LiteEconomyService implements EconomyService {
 	
-	private PlayerManager playerManager = new PlayerManager();
-	private BusinessManager businessManager = new BusinessManager();
+	private static final int MAX_CACHED_ACCOUNTS = 1024;
+	
+	private PlayerManager playerManager = EconomyLite.getPlayerManager();
+	private BusinessManager businessManager = EconomyLite.getBusinessManager();
+	private AccountCache<UUID, LiteUniqueAccount> uniqueAccounts = new AccountCache<UUID, LiteUniqueAccount>(MAX_CACHED_ACCOUNTS);
+	private AccountCache<String, LiteVirtualAccount> virtualAccounts = new AccountCache<String, LiteVirtualAccount>(MAX_CACHED_ACCOUNTS);
 
 	@Override
 	public void registerContextCalculator(ContextCalculator<Account> arg0) {
@@ -27,35 +45,46 @@ public class LiteEconomyService implements EconomyService {
 
 	@Override
 	public Optional<UniqueAccount> getOrCreateAccount(UUID uuid) {
-		if(playerManager.playerExists(uuid.toString())) {
-			return Optional.of(new LiteUniqueAccount(uuid));
+		//A cached handle means the account is known to exist
+		LiteUniqueAccount cached = uniqueAccounts.get(uuid);
+		if(cached!=null) return Optional.of(cached);
+		if(playerManager.playerExists(uuid.toString())||
+				playerManager.registerPlayer(uuid.toString(),FixedPoint.fromWhole(EconomyLite.getOptionInteger("defaultCurrency")))) {
+			LiteUniqueAccount account = new LiteUniqueAccount(uuid);
+			uniqueAccounts.put(uuid, account);
+			return Optional.of(account);
 		} else {
-			if(playerManager.registerPlayer(uuid.toString(),EconomyLite.getOptionInteger("defaultCurrency"))) {
-				return Optional.of(new LiteUniqueAccount(uuid));
-			} else {
-				return Optional.empty();
-			}
+			return Optional.empty();
 		}
 	}
 
 	@Override
 	public Optional<Account> getOrCreateAccount(String id) {
-		if(businessManager.businessExists(id)) {
-			return Optional.of(new LiteVirtualAccount(id));
+		//A cached handle means the business is known to exist
+		LiteVirtualAccount cached = virtualAccounts.get(id);
+		if(cached!=null) return Optional.of(cached);
+		if(businessManager.businessExists(id)||businessManager.createBusiness(id)) {
+			LiteVirtualAccount account = new LiteVirtualAccount(id);
+			virtualAccounts.put(id, account);
+			return Optional.of(account);
 		} else {
-			if(businessManager.createBusiness(id)) {
-				return Optional.of(new LiteVirtualAccount(id));
-			} else {
-				return Optional.empty();
-			}
+			return Optional.empty();
 		}
 	}
+	
+	/**
+	 * Forgets the cached account of a business, must be called when the business is deleted
+	 * @param id
+	 * 	Name of the business
+	 */
+	public void forgetAccount(String id) {
+		//Business names are not case sensitive, so drop every handle for the name
+		virtualAccounts.removeIf(key -> key.equalsIgnoreCase(id));
+	}
 
 	@Override
 	public Set<Currency> getCurrencies() {
-		HashSet<Currency> set = new HashSet<Currency>();
-		set.add(new LiteCurrency());
-		return set;
+		return Collections.singleton(EconomyLite.getCurrency());
 	}
 
 	@Override
@@ -73,4 +102,76 @@ public class LiteEconomyService implements EconomyService {
         return businessManager.businessExists(id);
     }
 
+	/**
+	 * Applies many balance changes at once, meant for plugins which pay lots of players at the same time.
+	 * 
+	 * The changes to each account are added up and checked together, then every account is
+	 * changed in one pass. A single BatchTransactionEvent is posted once the batch is applied.
+	 * @param deltas
+	 * 	The accounts to change and the amount to add to each
+	 * @return
+	 * 	The result of every entry, in the same order as the entries were given
+	 */
+	public List<TransactionResult> applyBatch(List<BalanceDelta> deltas) {
+		//Add up the changes to each account
+		LinkedHashMap<String, Long> playerTotals = new LinkedHashMap<String, Long>();
+		LinkedHashMap<String, Long> businessTotals = new LinkedHashMap<String, Long>();
+		for(BalanceDelta delta : deltas) {
+			long amount = MinorUnits.toMinor(delta.getAmount());
+			if(amount==MinorUnits.INVALID) continue;
+			if(delta.getAccount() instanceof LiteUniqueAccount) {
+				playerTotals.merge(delta.getAccount().getIdentifier(), amount, LiteEconomyService::sum);
+			} else if(delta.getAccount() instanceof LiteVirtualAccount) {
+				businessTotals.merge(delta.getAccount().getIdentifier(), amount, LiteEconomyService::sum);
+			}
+		}
+		HashMap<String, ResultType> playerResults = applyTotals(AccountType.PLAYER, playerTotals);
+		HashMap<String, ResultType> businessResults = applyTotals(AccountType.BUSINESS, businessTotals);
+		//Give every entry the result of its account
+		ArrayList<TransactionResult> results = new ArrayList<TransactionResult>();
+		HashSet<UUID> changedPlayers = new HashSet<UUID>();
+		for(BalanceDelta delta : deltas) {
+			Account account = delta.getAccount();
+			ResultType resultType = ResultType.FAILED;
+			//Amounts too big to convert were never applied
+			boolean applied = MinorUnits.toMinor(delta.getAmount())!=MinorUnits.INVALID;
+			if(applied&&account instanceof LiteUniqueAccount) {
+				resultType = playerResults.get(account.getIdentifier());
+				if(resultType.equals(ResultType.SUCCESS)) changedPlayers.add(((LiteUniqueAccount) account).getUniqueId());
+			} else if(applied&&account instanceof LiteVirtualAccount) {
+				resultType = businessResults.get(account.getIdentifier());
+			}
+			results.add(new LiteTransactionResult(account,delta.getAmount(),resultType,
+					(delta.getAmount().signum()<0) ? TransactionTypes.WITHDRAW : TransactionTypes.DEPOSIT));
+		}
+		Sponge.getGame().getEventManager().post(new BatchTransactionEvent(results, changedPlayers));
+		return results;
+	}
+	
+	private HashMap<String, ResultType> applyTotals(AccountType type, LinkedHashMap<String, Long> totals) {
+		HashMap<String, ResultType> results = new HashMap<String, ResultType>();
+		LinkedHashMap<String, Long> deltas = new LinkedHashMap<String, Long>();
+		long max = FixedPoint.getMaxBalance();
+		for(Map.Entry<String, Long> total : totals.entrySet()) {
+			long amount = total.getValue();
+			if(amount<-max||amount>max) {
+				//No balance could absorb this change
+				results.put(total.getKey(), (amount<0) ? ResultType.ACCOUNT_NO_FUNDS : ResultType.ACCOUNT_NO_SPACE);
+			} else {
+				deltas.put(total.getKey(), amount);
+			}
+		}
+		results.putAll(EconomyLite.getTransferEngine().applyDeltas(type, deltas));
+		return results;
+	}
+	
+	//Adds two totals, an overflow becomes a total no balance could absorb
+	private static long sum(long a, long b) {
+		try {
+			return Math.addExact(a, b);
+		} catch(ArithmeticException e) {
+			return (a<0) ? Long.MIN_VALUE + 1 : Long.MAX_VALUE;
+		}
+	}
+
 }
@@ -3,6 +3,8 @@ package me.Flibio.EconomyLite.API;
 import me.Flibio.EconomyLite.EconomyLite;
 import me.Flibio.EconomyLite.Events.LiteEconomyTransactionEvent;
 import me.Flibio.EconomyLite.Utils.PlayerManager;
+import me.Flibio.EconomyLite.Utils.FixedPoint;
+import me.Flibio.EconomyLite.Utils.TransferEngine.AccountType;
 
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.cause.Cause;
@@ -17,8 +19,7 @@ import org.spongepowered.api.service.economy.transaction.TransferResult;
 import org.spongepowered.api.text.Text;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -32,49 +33,41 @@ public class LiteUniqueAccount implements UniqueAccount {
 	
 	public LiteUniqueAccount(UUID uuid) {
 		this.uuid = uuid;
-		this.playerManager = new PlayerManager();
+		this.playerManager = EconomyLite.getPlayerManager();
 		this.liteCurrency = (LiteCurrency) EconomyLite.getCurrency();
 	}
 
 	@Override
 	public TransactionResult deposit(Currency currency, BigDecimal amount,
 			Cause cause, Set<Context> contexts) {
-		if(playerManager.addCurrency(uuid.toString(),amount.setScale(0, RoundingMode.HALF_UP).intValue())) {
-			TransactionResult result = new LiteTransactionResult(this,amount,ResultType.SUCCESS,TransactionTypes.TRANSFER);
-			Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
-			return result;
-		} else {
-			TransactionResult result = new LiteTransactionResult(this,amount,ResultType.FAILED,TransactionTypes.TRANSFER);
-			Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
-			return result;
-		}
+		long stored = MinorUnits.toMinor(amount);
+		ResultType resultType = ResultType.FAILED;
+		if(stored>=0) resultType = playerManager.addCurrency(uuid.toString(),stored) ? ResultType.SUCCESS : failureOf(stored);
+		TransactionResult result = new LiteTransactionResult(this,amount,resultType,TransactionTypes.TRANSFER);
+		Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
+		return result;
 	}
 
 	@Override
 	public BigDecimal getBalance(Currency currency, Set<Context> context) {
-		return BigDecimal.valueOf(playerManager.getBalance(uuid.toString()));	
+		return MinorUnits.toDecimal(playerManager.getBalance(uuid.toString()));	
 	}
 
 	@Override
 	public Map<Currency, BigDecimal> getBalances(Set<Context> arg0) {
-		int currentBal = playerManager.getBalance(uuid.toString());
-		if(currentBal<0) {
-			return new HashMap<Currency, BigDecimal>();
-		} else {
-			HashMap<Currency, BigDecimal> map = new HashMap<Currency, BigDecimal>();
-			map.put(liteCurrency, BigDecimal.valueOf(currentBal));
-			return map;
-		}
+		long currentBal = playerManager.getBalance(uuid.toString());
+		if(currentBal<0) return Collections.emptyMap();
+		return Collections.singletonMap(liteCurrency, MinorUnits.toDecimal(currentBal));
 	}
 
 	@Override
 	public BigDecimal getDefaultBalance(Currency currency) {
-		return BigDecimal.valueOf(0);
+		return BigDecimal.ZERO;
 	}
 
 	@Override
 	public Text getDisplayName() {
-		return Text.of((new PlayerManager()).getName(uuid.toString()));
+		return Text.of(playerManager.getName(uuid.toString()));
 	}
 
 	@Override
@@ -96,59 +89,44 @@ public class LiteUniqueAccount implements UniqueAccount {
 	@Override
 	public TransactionResult setBalance(Currency currency, BigDecimal amount,
 			Cause cause, Set<Context> contexts) {
-		if(playerManager.setBalance(uuid.toString(),amount.setScale(0, RoundingMode.HALF_UP).intValue())) {
-			TransactionResult result = new LiteTransactionResult(this,amount,ResultType.SUCCESS,TransactionTypes.TRANSFER);
-			Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
-			return result;
-		} else {
-			TransactionResult result = new LiteTransactionResult(this,amount,ResultType.FAILED,TransactionTypes.TRANSFER);
-			Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
-			return result;
-		}
+		long stored = MinorUnits.toMinor(amount);
+		ResultType resultType = (stored>=0&&playerManager.setBalance(uuid.toString(),stored)) ? ResultType.SUCCESS : ResultType.FAILED;
+		TransactionResult result = new LiteTransactionResult(this,amount,resultType,TransactionTypes.TRANSFER);
+		Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
+		return result;
 	}
 
 	@Override
 	public TransferResult transfer(Account account, Currency currency,
 			BigDecimal bigAmount, Cause cause, Set<Context> contexts) {
-		int toAccountBal = account.getBalance(liteCurrency).setScale(0, RoundingMode.HALF_UP).intValue();
-		int amount = bigAmount.setScale(0, RoundingMode.HALF_UP).intValue();
-		if(toAccountBal+amount>1000000) {
-			TransferResult result = new LiteTransferResult(this,BigDecimal.valueOf(amount),ResultType.ACCOUNT_NO_SPACE,account);
-			Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
-			return result;
-		} else {
-			if(getBalance(liteCurrency, new HashSet<Context>()).setScale(0, RoundingMode.HALF_UP).intValue()<amount) {
-				TransferResult result = new LiteTransferResult(this,BigDecimal.valueOf(amount),ResultType.ACCOUNT_NO_FUNDS,account);
-				Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
-				return result;
-			} else {
-				if(withdraw(liteCurrency,BigDecimal.valueOf(amount),cause,new HashSet<Context>()).getResult().equals(ResultType.SUCCESS)
-						&&account.deposit(liteCurrency,BigDecimal.valueOf(amount),cause,new HashSet<Context>()).getResult().
-						equals(ResultType.SUCCESS)) {
-					TransferResult result = new LiteTransferResult(this,BigDecimal.valueOf(amount),ResultType.SUCCESS,account);
-					Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
-					return result;
-				} else {
-					TransferResult result = new LiteTransferResult(this,BigDecimal.valueOf(amount),ResultType.FAILED,account);
-					Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
-					return result;
-				}
-			}
+		long amount = MinorUnits.toMinor(bigAmount);
+		if(amount<0) return postTransfer(account, bigAmount, ResultType.FAILED);
+		BigDecimal decimalAmount = MinorUnits.toDecimal(amount);
+		if(account instanceof LiteUniqueAccount||account instanceof LiteVirtualAccount) {
+			//Both accounts are stored by EconomyLite, move the currency in a single step
+			AccountType toType = (account instanceof LiteVirtualAccount) ? AccountType.BUSINESS : AccountType.PLAYER;
+			ResultType resultType = EconomyLite.getTransferEngine().transfer(AccountType.PLAYER, uuid.toString(), toType, account.getIdentifier(), amount);
+			return postTransfer(account, decimalAmount, resultType);
 		}
+		long toAccountBal = MinorUnits.toMinor(account.getBalance(liteCurrency));
+		if(FixedPoint.add(toAccountBal, amount)<0) return postTransfer(account, decimalAmount, ResultType.ACCOUNT_NO_SPACE);
+		if(playerManager.getBalance(uuid.toString())<amount) return postTransfer(account, decimalAmount, ResultType.ACCOUNT_NO_FUNDS);
+		if(withdraw(liteCurrency,decimalAmount,cause,new HashSet<Context>()).getResult().equals(ResultType.SUCCESS)
+				&&account.deposit(liteCurrency,decimalAmount,cause,new HashSet<Context>()).getResult().equals(ResultType.SUCCESS)) {
+			return postTransfer(account, decimalAmount, ResultType.SUCCESS);
+		}
+		return postTransfer(account, decimalAmount, ResultType.FAILED);
 	}
 
 	@Override
 	public TransactionResult withdraw(Currency currency, BigDecimal amount,
 			Cause cause, Set<Context> contexts) {
-		if(playerManager.removeCurrency(uuid.toString(),amount.setScale(0, RoundingMode.HALF_UP).intValue())) {
-			TransactionResult result = new LiteTransactionResult(this,amount,ResultType.SUCCESS,TransactionTypes.WITHDRAW);
-			Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
-			return result;
-		} else {
-			TransactionResult result = new LiteTransactionResult(this,amount,ResultType.FAILED,TransactionTypes.WITHDRAW);
-			Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
-			return result;
-		}
+		long stored = MinorUnits.toMinor(amount);
+		ResultType resultType = ResultType.FAILED;
+		if(stored>=0) resultType = playerManager.removeCurrency(uuid.toString(),stored) ? ResultType.SUCCESS : failureOf(-stored);
+		TransactionResult result = new LiteTransactionResult(this,amount,resultType,TransactionTypes.WITHDRAW);
+		Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
+		return result;
 	}
 
 	@Override
@@ -156,6 +134,20 @@ public class LiteUniqueAccount implements UniqueAccount {
 		return new HashSet<Context>();
 	}
 
+	//Works out why a balance change failed, so a full or empty account can be told apart from an error
+	private ResultType failureOf(long amount) {
+		long balance = playerManager.getBalance(uuid.toString());
+		if(balance<0) return ResultType.FAILED;
+		if(amount<0) return balance<-amount ? ResultType.ACCOUNT_NO_FUNDS : ResultType.FAILED;
+		return FixedPoint.add(balance, amount)<0 ? ResultType.ACCOUNT_NO_SPACE : ResultType.FAILED;
+	}
+
+	private TransferResult postTransfer(Account to, BigDecimal amount, ResultType resultType) {
+		TransferResult result = new LiteTransferResult(this,amount,resultType,to);
+		Sponge.getGame().getEventManager().post(new LiteEconomyTransactionEvent(result));
+		return result;
+	}
+
 	@Override
 	public String getIdentifier() {
 		return this.uuid.toString();
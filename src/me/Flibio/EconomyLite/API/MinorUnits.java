@@ -0,0 +1,61 @@
+package me.Flibio.EconomyLite.API;
+
+import me.Flibio.EconomyLite.Utils.FixedPoint;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class MinorUnits {
+
+	//Returned when an amount can't be stored
+	public static final long INVALID = Long.MIN_VALUE;
+
+	private MinorUnits() {
+
+	}
+
+	/**
+	 * Converts an amount given to the EconomyService into the smallest unit of currency
+	 * @param amount
+	 * 	The amount
+	 * @return
+	 * 	The amount rounded to the currency's fraction digits(INVALID if it does not fit in a long)
+	 */
+	public static long toMinor(BigDecimal amount) {
+		int digits = FixedPoint.getFractionDigits();
+		//Amounts which already fit the currency, which are nearly all of them, need no rounding
+		if(amount.scale()>digits) amount = amount.setScale(digits, RoundingMode.HALF_UP);
+		if(digits>0) amount = amount.movePointRight(digits);
+		try {
+			return amount.longValueExact();
+		} catch(ArithmeticException e) {
+			return INVALID;
+		}
+	}
+
+	/**
+	 * Converts an amount typed in a command into the smallest unit of currency
+	 * @param amount
+	 * 	The amount as typed, for example 12.50
+	 * @return
+	 * 	The amount rounded to the currency's fraction digits(INVALID if it is not a number or does not fit in a long)
+	 */
+	public static long parse(String amount) {
+		try {
+			return toMinor(new BigDecimal(amount));
+		} catch(NumberFormatException e) {
+			return INVALID;
+		}
+	}
+
+	/**
+	 * Converts the smallest unit of currency back into an amount for the EconomyService
+	 * @param minor
+	 * 	The amount in the smallest unit of currency
+	 * @return
+	 * 	The amount as a BigDecimal with the currency's fraction digits
+	 */
+	public static BigDecimal toDecimal(long minor) {
+		return BigDecimal.valueOf(minor, FixedPoint.getFractionDigits());
+	}
+}
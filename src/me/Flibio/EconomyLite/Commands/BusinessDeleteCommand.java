@@ -13,20 +13,20 @@ import org.spongepowered.api.service.economy.EconomyService;
 import org.spongepowered.api.service.economy.account.UniqueAccount;
 import org.spongepowered.api.text.format.TextColors;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Optional;
 import java.util.UUID;
 
 import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.API.MinorUnits;
 import me.Flibio.EconomyLite.Utils.BusinessManager;
 import me.Flibio.EconomyLite.Utils.TextUtils;
 
 public class BusinessDeleteCommand implements CommandExecutor {
 	
-	private BusinessManager businessManager = new BusinessManager();private EconomyService economyService = EconomyLite.getService();
+	private BusinessManager businessManager = EconomyLite.getBusinessManager();
+	private EconomyService economyService = EconomyLite.getService();
 	private Currency currency = EconomyLite.getService().getDefaultCurrency();
-	//private PlayerManager playerManager = new PlayerManager();
 	private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();
 
 	@Override
@@ -55,28 +55,23 @@ public class BusinessDeleteCommand implements CommandExecutor {
                         if(businessManager.confirmationNeeded(businessName)) {
                             //Tell user that the business needs confirmation
                             businessManager.setConfirmationNeeded(businessName, false);
-                            //Expire in 1 minute
-                            Thread expireThread = new Thread(() -> {
-                                try{
-                                    Thread.sleep(60000);
-                                    businessManager.setConfirmationNeeded(businessName, true);
-                                } catch(InterruptedException e) {
-                                    businessManager.setConfirmationNeeded(businessName, true);
-                                }
-                            });
-                            expireThread.start();
                             player.sendMessage(TextUtils.aboutToDelete(correctName));
                             player.sendMessage(TextUtils.clickToContinue("/business delete "+businessName));
                         } else {
                             //Get balance
-                            int balance = businessManager.getBusinessBalance(businessName);
+                            long balance = businessManager.getBusinessBalance(businessName);
                             if(balance<0) {
                                 //Error occured
                                 player.sendMessage(TextUtils.basicText("An internal error has occured!", TextColors.RED));
                                 return;
                             }
-                            int eachGet = (int) Math.floor(balance/businessManager.getBusinessOwners(businessName).size());
                             ArrayList<String> owners = businessManager.getBusinessOwners(businessName);
+                            if(owners.isEmpty()) {
+                                //Error occured
+                                player.sendMessage(TextUtils.basicText("An internal error has occured!", TextColors.RED));
+                                return;
+                            }
+                            long eachGet = balance/owners.size();
                             //Try to delete business
                             if(businessManager.deleteBusiness(businessName)) {
                                 //Success
@@ -90,7 +85,7 @@ public class BusinessDeleteCommand implements CommandExecutor {
                                         return;
                                     } else {
                                         UniqueAccount account = uOpt.get();
-                                        account.deposit(currency, BigDecimal.valueOf(eachGet), Cause.of("EconomyLite"));
+                                        account.deposit(currency, MinorUnits.toDecimal(eachGet), Cause.of("EconomyLite"));
                                     }
                                 }
                             } else {
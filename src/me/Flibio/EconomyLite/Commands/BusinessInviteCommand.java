@@ -18,8 +18,8 @@ import me.Flibio.EconomyLite.Utils.TextUtils;
 
 public class BusinessInviteCommand implements CommandExecutor {
 
-	private BusinessManager businessManager = new BusinessManager();
-	private PlayerManager playerManager = new PlayerManager();
+	private BusinessManager businessManager = EconomyLite.getBusinessManager();
+	private PlayerManager playerManager = EconomyLite.getPlayerManager();
 	private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();
 
 	@Override
@@ -64,11 +64,8 @@ public class BusinessInviteCommand implements CommandExecutor {
 								if (businessManager.setInvited(businessName, uuid, true)) {
 									//Success! - Check if the player is online and send them the invite if they are
 									//Player was found - send invite message
-									EconomyLite.access.game.getServer().getOnlinePlayers().stream().filter(p -> p.getUniqueId().toString().equals(uuid)).forEach(p -> {
-										//Player was found - send invite message
-										p.sendMessage(TextUtils.invited(businessManager.getCorrectBusinessName(businessName)));
-										p.sendMessage(TextUtils.clickToContinue("/business inviteAccept " + businessName));
-									});
+									EconomyLite.getNotifications().send(uuid, TextUtils.invited(businessManager.getCorrectBusinessName(businessName)),
+											TextUtils.clickToContinue("/business inviteAccept " + businessName));
 									//Tell the command sender invite was sent
 									player.sendMessage(TextUtils.successfulInvite(businessManager.getCorrectBusinessName(businessName), playerName));
 								} else {
@@ -17,7 +17,7 @@ import me.Flibio.EconomyLite.Utils.TextUtils;
 
 public class BusinessLeaveCommand implements CommandExecutor {
 
-	private BusinessManager businessManager = new BusinessManager();
+	private BusinessManager businessManager = EconomyLite.getBusinessManager();
 	private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();
 
 	@Override
@@ -47,16 +47,6 @@ public class BusinessLeaveCommand implements CommandExecutor {
                             //Tell player that the business will be deleted
                             player.sendMessage(TextUtils.leaveOnlyOwner(correctName));
                             businessManager.setConfirmationNeeded(businessName, false);
-                            //Expire in 1 minute
-                            Thread expireThread = new Thread(() -> {
-                                try{
-                                    Thread.sleep(60000);
-                                    businessManager.setConfirmationNeeded(businessName, true);
-                                } catch(InterruptedException e) {
-                                    businessManager.setConfirmationNeeded(businessName, true);
-                                }
-                            });
-                            expireThread.start();
                             player.sendMessage(TextUtils.clickToContinue("/business delete "+businessName));
                         } else {
                             //Leave the business
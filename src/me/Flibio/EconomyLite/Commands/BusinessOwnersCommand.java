@@ -19,8 +19,8 @@ import me.Flibio.EconomyLite.Utils.TextUtils;
 
 public class BusinessOwnersCommand implements CommandExecutor{
 	
-	private BusinessManager businessManager = new BusinessManager();
-	private PlayerManager playerManager = new PlayerManager();
+	private BusinessManager businessManager = EconomyLite.getBusinessManager();
+	private PlayerManager playerManager = EconomyLite.getPlayerManager();
 	private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();
 	
 	@Override
@@ -55,8 +55,9 @@ public class BusinessOwnersCommand implements CommandExecutor{
 				//Send the message:
 				ArrayList<String> owners = businessManager.getBusinessOwners(businessName);
 				player.sendMessage(TextUtils.ownersTitle(correctName));
-				for (String owner : owners) {
-					player.sendMessage(TextUtils.owner(playerManager.getName(owner)));
+				//Look up every owner's name at once
+				for (String owner : playerManager.getNames(owners)) {
+					player.sendMessage(TextUtils.owner(owner));
 				}
 			} else {
 				//An error occurred
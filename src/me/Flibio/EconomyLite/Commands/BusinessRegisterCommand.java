@@ -17,7 +17,7 @@ import me.Flibio.EconomyLite.Utils.TextUtils;
 
 public class BusinessRegisterCommand implements CommandExecutor {
 	
-	private BusinessManager businessManager = new BusinessManager();
+	private BusinessManager businessManager = EconomyLite.getBusinessManager();
 	private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();
 
 	@Override
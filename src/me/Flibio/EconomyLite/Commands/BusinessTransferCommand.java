@@ -10,15 +10,15 @@ import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.scheduler.Task.Builder;
 import org.spongepowered.api.service.economy.Currency;
 import org.spongepowered.api.service.economy.EconomyService;
+import org.spongepowered.api.service.economy.account.Account;
 import org.spongepowered.api.service.economy.account.UniqueAccount;
 import org.spongepowered.api.service.economy.transaction.ResultType;
 import org.spongepowered.api.text.format.TextColors;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Optional;
 
 import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.API.MinorUnits;
 import me.Flibio.EconomyLite.Utils.BusinessManager;
 import me.Flibio.EconomyLite.Utils.TextUtils;
 
@@ -26,7 +26,7 @@ public class BusinessTransferCommand implements CommandExecutor {
 
     private EconomyService economyService = EconomyLite.getService();
     private Currency currency = EconomyLite.getService().getDefaultCurrency();
-    private BusinessManager businessManager = new BusinessManager();
+    private BusinessManager businessManager = EconomyLite.getBusinessManager();
     private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();
 
     @Override
@@ -42,11 +42,15 @@ public class BusinessTransferCommand implements CommandExecutor {
 
             Player player = (Player) source;
 
-            Optional<Integer> rawAmount = args.<Integer>getOne("amount");
+            Optional<String> rawAmount = args.<String>getOne("amount");
             Optional<String> rawBusiness = args.<String>getOne("business");
             if (rawAmount.isPresent() && rawBusiness.isPresent()) {
                 //Both parameters are present
-                int amount = rawAmount.get();
+                long amount = MinorUnits.parse(rawAmount.get());
+                if (amount < 0) {
+                    player.sendMessage(TextUtils.basicText("Please enter a valid amount!", TextColors.RED));
+                    return;
+                }
                 String businessName = rawBusiness.get().trim();
                 String correctName = businessManager.getCorrectBusinessName(businessName);
                 Optional<UniqueAccount> uOpt = economyService.getOrCreateAccount(player.getUniqueId());
@@ -65,31 +69,23 @@ public class BusinessTransferCommand implements CommandExecutor {
                         player.sendMessage(TextUtils.basicText("You don't have permission to draw funds from that business!", TextColors.RED));
                         return;
                     }
-                    int businessBalance = businessManager.getBusinessBalance(businessName);
-                    int playerBalance = account.getBalance(currency).setScale(0, RoundingMode.HALF_UP).intValue();
-                    //Check for an error
-                    if (businessBalance < 0 || playerBalance < 0) {
+                    Optional<Account> businessAccount = economyService.getOrCreateAccount(businessName);
+                    if (!businessAccount.isPresent()) {
                         player.sendMessage(TextUtils.basicText("An internal error has occured!", TextColors.RED));
                         return;
                     }
-                    //Check if the business has enough funds
-                    if (amount > businessBalance) {
+                    //Attempt to transfer the money in one step
+                    ResultType result = businessAccount.get().transfer(account, currency, MinorUnits.toDecimal(amount), Cause.of("EconomyLite")).getResult();
+                    if (result.equals(ResultType.ACCOUNT_NO_FUNDS)) {
                         //Not enough funds
                         player.sendMessage(TextUtils.basicText("That business doesn't have enough funds!", TextColors.RED));
                         return;
                     }
-                    int newBalance = businessBalance + playerBalance;
-                    //Make sure the new balance is within the parameters
-                    if (newBalance < 0 || newBalance > 1000000) {
-                        player.sendMessage(TextUtils.basicText("Your balance must stay within 0 and 1,000,000 " + EconomyLite.access.currencyPlural + "!", TextColors.RED));
-                        return;
-                    }
-                    //Attempt to transfer the money
-                    if (!businessManager.removeCurrency(businessName, amount)) {
-                        player.sendMessage(TextUtils.basicText("An internal error has occured!", TextColors.RED));
+                    if (result.equals(ResultType.ACCOUNT_NO_SPACE)) {
+                        player.sendMessage(TextUtils.basicText("Your balance must stay within 0 and " + TextUtils.maxBalance() + " " + EconomyLite.access.currencyPlural + "!", TextColors.RED));
                         return;
                     }
-                    if (!account.setBalance(currency, BigDecimal.valueOf(playerBalance + amount), Cause.of("EconomyLite")).getResult().equals(ResultType.SUCCESS)) {
+                    if (!result.equals(ResultType.SUCCESS)) {
                         player.sendMessage(TextUtils.basicText("An internal error has occured!", TextColors.RED));
                         return;
                     }
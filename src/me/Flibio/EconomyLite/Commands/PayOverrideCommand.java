@@ -1,6 +1,5 @@
 package me.Flibio.EconomyLite.Commands;
 
-import org.spongepowered.api.Sponge;
 import org.spongepowered.api.command.CommandException;
 import org.spongepowered.api.command.CommandResult;
 import org.spongepowered.api.command.CommandSource;
@@ -11,16 +10,16 @@ import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.scheduler.Task.Builder;
 import org.spongepowered.api.service.economy.Currency;
 import org.spongepowered.api.service.economy.EconomyService;
+import org.spongepowered.api.service.economy.account.Account;
 import org.spongepowered.api.service.economy.account.UniqueAccount;
 import org.spongepowered.api.service.economy.transaction.ResultType;
 import org.spongepowered.api.text.format.TextColors;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Optional;
 import java.util.UUID;
 
 import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.API.MinorUnits;
 import me.Flibio.EconomyLite.Utils.BusinessManager;
 import me.Flibio.EconomyLite.Utils.PlayerManager;
 import me.Flibio.EconomyLite.Utils.TextUtils;
@@ -29,8 +28,8 @@ public class PayOverrideCommand implements CommandExecutor{
 
 	private EconomyService economyService = EconomyLite.getService();
 	private Currency currency = EconomyLite.getService().getDefaultCurrency();
-	private PlayerManager playerManager = new PlayerManager();
-	private BusinessManager businessManager = new BusinessManager();
+	private PlayerManager playerManager = EconomyLite.getPlayerManager();
+	private BusinessManager businessManager = EconomyLite.getBusinessManager();
 	private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();
 	
 	@Override
@@ -53,12 +52,16 @@ public class PayOverrideCommand implements CommandExecutor{
             }
 
             Optional<String> rawWhoType = args.<String>getOne("whoType");
-            Optional<Integer> rawAmount = args.<Integer>getOne("amount");
+            Optional<String> rawAmount = args.<String>getOne("amount");
             Optional<String> rawWho = args.<String>getOne("who");
             if(rawWhoType.isPresent()&&rawWho.isPresent()&&rawAmount.isPresent()) {
                 //Both parameters are present
                 String whoType = rawWhoType.get();
-                int amount = rawAmount.get();
+                long amount = MinorUnits.parse(rawAmount.get());
+                if(amount<0) {
+                    player.sendMessage(TextUtils.basicText("Please enter a valid amount!", TextColors.RED));
+                    return;
+                }
                 String who = rawWho.get();
 
                 if(whoType.equalsIgnoreCase("player")) {
@@ -97,77 +100,47 @@ public class PayOverrideCommand implements CommandExecutor{
 		return CommandResult.success();
 	}
 	
-	private void payBusiness(String uuid, int amount, Player player, String businessName) {
+	private void payBusiness(String uuid, long amount, Player player, String businessName) {
 		UniqueAccount account = economyService.getOrCreateAccount(UUID.fromString(uuid)).get();
-		int balance = account.getBalance(currency).setScale(0, RoundingMode.HALF_UP).intValue();
-		//Check for an error
-		if(balance>-1) {
-			//Check if the player has enough money
-			if(amount>balance) {
-				//Player doesn't have enough funds
-				player.sendMessage(TextUtils.basicText("You don't have enough money to pay!", TextColors.RED));
-			} else {
-				//Check if the new balance is within parameters
-				int newBalance = businessManager.getBusinessBalance(businessName) + amount;
-				if(newBalance<0||newBalance>1000000) {
-					//Out of range
-					player.sendMessage(TextUtils.basicText("The new balance must be in-between 0 and 1,000,000 "+EconomyLite.access.currencyPlural+"!", TextColors.RED));
-				} else {
-					//Process transaction
-					if(account.withdraw(currency,BigDecimal.valueOf(amount),Cause.of("EconomyLite")).getResult().equals(ResultType.SUCCESS)&&
-							businessManager.setBusinessBalance(businessName, newBalance)) {
-						//Success
-						player.sendMessage(TextUtils.paySuccess(businessName, amount));
-						for(String owner : businessManager.getBusinessOwners(businessName)) {
-						    Sponge.getServer().getOnlinePlayers().forEach(p -> {
-						        if(p.getName().equalsIgnoreCase(owner)) {
-						            p.sendMessage(TextUtils.bPayed(player.getName(), amount, businessName));
-						        }
-						    });
-						}
-					} else {
-						//Error
-						player.sendMessage(TextUtils.basicText("An internal error has occurred!", TextColors.RED));
-					}
-				}
-			}
-		} else {
+		Optional<Account> businessAccount = economyService.getOrCreateAccount(businessName);
+		if(!businessAccount.isPresent()) {
 			//Error
 			player.sendMessage(TextUtils.basicText("An internal error has occurred!", TextColors.RED));
+			return;
+		}
+		//Take the money and give it to the business in one step
+		ResultType result = account.transfer(businessAccount.get(),currency,MinorUnits.toDecimal(amount),Cause.of("EconomyLite")).getResult();
+		if(result.equals(ResultType.SUCCESS)) {
+			//Success
+			player.sendMessage(TextUtils.paySuccess(businessName, amount));
+			//Owners are stored by UUID
+			EconomyLite.getNotifications().sendAll(businessManager.getBusinessOwners(businessName), TextUtils.bPayed(player.getName(), amount, businessName));
+		} else {
+			sendFailure(player, result);
 		}
 	}
 	
-	private void payPlayer(String uuid, int amount, Player player, String playerName, String targetUUID) {
+	private void payPlayer(String uuid, long amount, Player player, String playerName, String targetUUID) {
 		UniqueAccount account = economyService.getOrCreateAccount(UUID.fromString(uuid)).get();
 		UniqueAccount targetAccount = economyService.getOrCreateAccount(UUID.fromString(targetUUID)).get();
-		int balance = account.getBalance(currency).setScale(0, RoundingMode.HALF_UP).intValue();
-		//Check for an error
-		if(balance>-1) {
-			//Check if the player has enough money
-			if(amount>balance) {
-				//Player doesn't have enough funds
-				player.sendMessage(TextUtils.basicText("You don't have enough money to pay!", TextColors.RED));
-			} else {
-				//Check if the new balance is within parameters
-				int newBalance = targetAccount.getBalance(currency).setScale(0, RoundingMode.HALF_UP).intValue() + amount;
-				if(newBalance<0||newBalance>1000000) {
-					//Out of range
-					player.sendMessage(TextUtils.basicText("The new balance must be in-between 0 and 1,000,000 "+EconomyLite.access.currencyPlural+"!", TextColors.RED));
-				} else {
-					//Process transaction
-					if(account.withdraw(currency,BigDecimal.valueOf(amount),Cause.of("EconomyLite")).getResult().equals(ResultType.SUCCESS)&&
-							targetAccount.setBalance(currency,BigDecimal.valueOf(newBalance),Cause.of("EconomyLite")).getResult().equals(ResultType.SUCCESS)) {
-						//Success
-						player.sendMessage(TextUtils.paySuccess(playerName, amount));
-						Sponge.getServer().getOnlinePlayers().stream().filter(oPlayer -> oPlayer.getUniqueId().toString().equals(targetUUID)).forEach(oPlayer -> {
-							oPlayer.sendMessage(TextUtils.payed(player.getName(), amount));
-						});
-					} else {
-						//Error
-						player.sendMessage(TextUtils.basicText("An internal error has occurred!", TextColors.RED));
-					}
-				}
-			}
+		//Take the money and give it to the target in one step
+		ResultType result = account.transfer(targetAccount,currency,MinorUnits.toDecimal(amount),Cause.of("EconomyLite")).getResult();
+		if(result.equals(ResultType.SUCCESS)) {
+			//Success
+			player.sendMessage(TextUtils.paySuccess(playerName, amount));
+			EconomyLite.getNotifications().send(targetUUID, TextUtils.payed(player.getName(), amount));
+		} else {
+			sendFailure(player, result);
+		}
+	}
+	
+	private void sendFailure(Player player, ResultType result) {
+		if(result.equals(ResultType.ACCOUNT_NO_FUNDS)) {
+			//Player doesn't have enough funds
+			player.sendMessage(TextUtils.basicText("You don't have enough money to pay!", TextColors.RED));
+		} else if(result.equals(ResultType.ACCOUNT_NO_SPACE)) {
+			//Out of range
+			player.sendMessage(TextUtils.basicText("The new balance must be in-between 0 and " + TextUtils.maxBalance() + " " + EconomyLite.access.currencyPlural + "!", TextColors.RED));
 		} else {
 			//Error
 			player.sendMessage(TextUtils.basicText("An internal error has occurred!", TextColors.RED));
@@ -11,11 +11,11 @@ import org.spongepowered.api.service.economy.EconomyService;
 import org.spongepowered.api.service.economy.account.UniqueAccount;
 import org.spongepowered.api.text.format.TextColors;
 
-import java.math.RoundingMode;
 import java.util.Optional;
 import java.util.UUID;
 
 import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.API.MinorUnits;
 import me.Flibio.EconomyLite.Utils.PlayerManager;
 import me.Flibio.EconomyLite.Utils.TextUtils;
 
@@ -23,7 +23,7 @@ public class PlayerBalanceCommand implements CommandExecutor {
 
     private EconomyService economyService = EconomyLite.getService();
     private Currency currency = EconomyLite.getService().getDefaultCurrency();
-    private PlayerManager playerManager = new PlayerManager();
+    private PlayerManager playerManager = EconomyLite.getPlayerManager();
     private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();
     
     @Override
@@ -44,7 +44,7 @@ public class PlayerBalanceCommand implements CommandExecutor {
                 String uuid = playerManager.getUUID(targetName);
                 Optional<UniqueAccount> oAct = economyService.getOrCreateAccount(UUID.fromString(uuid));
                 if(oAct.isPresent()) {
-                    int balance = oAct.get().getBalance(currency).setScale(0, RoundingMode.HALF_UP).intValue();
+                    long balance = MinorUnits.toMinor(oAct.get().getBalance(currency));
                     if(balance<0) {
                         source.sendMessage(TextUtils.basicText("An internal error has occurred!", TextColors.RED));
                     } else {
@@ -13,12 +13,11 @@ import org.spongepowered.api.service.economy.account.UniqueAccount;
 import org.spongepowered.api.service.economy.transaction.ResultType;
 import org.spongepowered.api.text.format.TextColors;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Optional;
 import java.util.UUID;
 
 import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.API.MinorUnits;
 import me.Flibio.EconomyLite.Utils.PlayerManager;
 import me.Flibio.EconomyLite.Utils.TextUtils;
 
@@ -26,7 +25,7 @@ public class RemoveCommand implements CommandExecutor {
 
 	private EconomyService economyService = EconomyLite.getService();
 	private Currency currency = EconomyLite.getService().getDefaultCurrency();
-	private PlayerManager playerManager = new PlayerManager();
+	private PlayerManager playerManager = EconomyLite.getPlayerManager();
 	private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();	
 
 	@Override
@@ -36,11 +35,15 @@ public class RemoveCommand implements CommandExecutor {
 		taskBuilder.execute(() -> {
             //Retrieve arguments
             Optional<String> playerNameOptional = args.<String>getOne("player");
-            Optional<Integer> amountOptional = args.<Integer>getOne("amount");
+            Optional<String> amountOptional = args.<String>getOne("amount");
             if(playerNameOptional.isPresent()&&amountOptional.isPresent()) {
                 //Set the variables
                 String playerName = playerNameOptional.get();
-                int amount = amountOptional.get();
+                long amount = MinorUnits.parse(amountOptional.get());
+                if(amount<0) {
+                    source.sendMessage(TextUtils.basicText("Please enter a valid amount!", TextColors.RED));
+                    return;
+                }
                 //Run the thread
                 source.sendMessage(TextUtils.editingBalance(playerName));
                 //Get the players UUID
@@ -52,18 +55,14 @@ public class RemoveCommand implements CommandExecutor {
                         source.sendMessage(TextUtils.basicText("An internal error has occured!", TextColors.RED));
                     } else {
                         UniqueAccount account = uOpt.get();
-                        //Set amount
-                        int newAmount = account.getBalance(currency).setScale(0, RoundingMode.HALF_UP).intValue() - amount;
-                        //Check if the amount is in-between of the parameters
-                        if(newAmount<0||newAmount>1000000) {
-                            //New balance is to big or small
-                            source.sendMessage(TextUtils.basicText("The new balance must be in-between 0 and 1,000,000 "+EconomyLite.access.currencyPlural+"!", TextColors.RED));
-                            return;
-                        }
-                        //Set the player's balance
-                        if(account.setBalance(currency,BigDecimal.valueOf(newAmount),Cause.of("EconomyLite")).getResult().equals(ResultType.SUCCESS)) {
+                        //Remove from the balance in one step, so changes made at the same time are kept
+                        ResultType result = account.withdraw(currency, MinorUnits.toDecimal(amount), Cause.of("EconomyLite")).getResult();
+                        if(result.equals(ResultType.SUCCESS)) {
                             //Successful
-                            source.sendMessage(TextUtils.successfulBalanceChangeText(playerName, newAmount));
+                            source.sendMessage(TextUtils.successfulBalanceChangeText(playerName, playerManager.getBalance(uuid)));
+                        } else if(result.equals(ResultType.ACCOUNT_NO_SPACE)||result.equals(ResultType.ACCOUNT_NO_FUNDS)) {
+                            //New balance is to big or small
+                            source.sendMessage(TextUtils.basicText("The new balance must be in-between 0 and "+TextUtils.maxBalance()+" "+EconomyLite.access.currencyPlural+"!", TextColors.RED));
                         } else {
                             //Send error message
                             source.sendMessage(TextUtils.basicText("An internal error has occured!", TextColors.RED));
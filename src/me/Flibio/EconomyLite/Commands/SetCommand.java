@@ -13,11 +13,12 @@ import org.spongepowered.api.service.economy.account.UniqueAccount;
 import org.spongepowered.api.service.economy.transaction.ResultType;
 import org.spongepowered.api.text.format.TextColors;
 
-import java.math.BigDecimal;
 import java.util.Optional;
 import java.util.UUID;
 
 import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.API.MinorUnits;
+import me.Flibio.EconomyLite.Utils.FixedPoint;
 import me.Flibio.EconomyLite.Utils.PlayerManager;
 import me.Flibio.EconomyLite.Utils.TextUtils;
 
@@ -25,7 +26,7 @@ public class SetCommand implements CommandExecutor {
 
 	private EconomyService economyService = EconomyLite.getService();
 	private Currency currency = EconomyLite.getService().getDefaultCurrency();
-	private PlayerManager playerManager = new PlayerManager();
+	private PlayerManager playerManager = EconomyLite.getPlayerManager();
 	private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();
 
 	@Override
@@ -35,11 +36,15 @@ public class SetCommand implements CommandExecutor {
 		taskBuilder.execute(() -> {
             //Retrieve arguments
             Optional<String> playerNameOptional = args.<String>getOne("player");
-            Optional<Integer> amountOptional = args.<Integer>getOne("amount");
+            Optional<String> amountOptional = args.<String>getOne("amount");
             if(playerNameOptional.isPresent()&&amountOptional.isPresent()) {
                 //Set the variables
                 String playerName = playerNameOptional.get();
-                int amount = amountOptional.get();
+                long amount = MinorUnits.parse(amountOptional.get());
+                if(amount<0) {
+                    source.sendMessage(TextUtils.basicText("Please enter a valid amount!", TextColors.RED));
+                    return;
+                }
                 //Run the thread
                 source.sendMessage(TextUtils.editingBalance(playerName));
                 //Get the players UUID
@@ -52,13 +57,13 @@ public class SetCommand implements CommandExecutor {
                     } else {
                         UniqueAccount account = uOpt.get();
                         //Check if the amount is in-between of the parameters
-                        if(amount<0||amount>1000000) {
+                        if(!FixedPoint.inRange(amount)) {
                             //New balance is to big or small
-                            source.sendMessage(TextUtils.basicText("The new balance must be in-between 0 and 1,000,000 "+EconomyLite.access.currencyPlural+"!", TextColors.RED));
+                            source.sendMessage(TextUtils.basicText("The new balance must be in-between 0 and "+TextUtils.maxBalance()+" "+EconomyLite.access.currencyPlural+"!", TextColors.RED));
                             return;
                         }
                         //Set the player's balance
-                        if(account.setBalance(currency,BigDecimal.valueOf(amount),Cause.of("EconomyLite")).getResult().equals(ResultType.SUCCESS)) {
+                        if(account.setBalance(currency,MinorUnits.toDecimal(amount),Cause.of("EconomyLite")).getResult().equals(ResultType.SUCCESS)) {
                             //Successful
                             source.sendMessage(TextUtils.successfulBalanceChangeText(playerName, amount));
                         } else {
@@ -10,6 +10,7 @@ import org.spongepowered.api.command.args.GenericArguments;
 import org.spongepowered.api.command.spec.CommandSpec;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.game.state.GameInitializationEvent;
+import org.spongepowered.api.event.game.state.GameStoppingServerEvent;
 import org.spongepowered.api.plugin.Dependency;
 import org.spongepowered.api.plugin.Plugin;
 import org.spongepowered.api.service.economy.Currency;
@@ -17,10 +18,13 @@ import org.spongepowered.api.service.economy.EconomyService;
 import org.spongepowered.api.service.sql.SqlService;
 import org.spongepowered.api.text.Text;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import me.Flibio.EconomyLite.API.EconomyLiteAPI;
+import me.Flibio.EconomyLite.API.EconomyLiteAsyncAPI;
 import me.Flibio.EconomyLite.API.LiteCurrency;
 import me.Flibio.EconomyLite.API.LiteEconomyService;
 import me.Flibio.EconomyLite.Commands.AddCommand;
@@ -39,21 +43,46 @@ import me.Flibio.EconomyLite.Commands.RemoveCommand;
 import me.Flibio.EconomyLite.Commands.SetCommand;
 import me.Flibio.EconomyLite.Listeners.BalanceChangeListener;
 import me.Flibio.EconomyLite.Listeners.PlayerJoinListener;
+import me.Flibio.EconomyLite.Listeners.PlayerQuitListener;
+import me.Flibio.EconomyLite.Utils.BalanceCache;
+import me.Flibio.EconomyLite.Utils.BalanceJournal;
+import me.Flibio.EconomyLite.Utils.BalanceScoreboards;
+import me.Flibio.EconomyLite.Utils.BusinessIndex;
 import me.Flibio.EconomyLite.Utils.BusinessManager;
+import me.Flibio.EconomyLite.Utils.ConfirmationWheel;
 import me.Flibio.EconomyLite.Utils.FileManager;
 import me.Flibio.EconomyLite.Utils.FileManager.FileType;
+import me.Flibio.EconomyLite.Utils.FixedPoint;
 import me.Flibio.EconomyLite.Utils.MySQLManager;
+import me.Flibio.EconomyLite.Utils.NotificationDispatcher;
+import me.Flibio.EconomyLite.Utils.PlayerManager;
+import me.Flibio.EconomyLite.Utils.ProfileCache;
+import me.Flibio.EconomyLite.Utils.StoredScale;
+import me.Flibio.EconomyLite.Utils.TransferEngine;
+import me.Flibio.EconomyLite.Utils.WriteBehindQueue;
 import me.flibio.updatifier.Updatifier;
-import ninja.leaping.configurate.ConfigurationNode;
 
 @Updatifier(repoName = "EconomyLite", repoOwner = "Flibio", version = "v1.1.9")
 @Plugin(id = "economylite", name = "EconomyLite", version = "1.1.9", dependencies = @Dependency(id = "Updatifier", optional = true))
 public class EconomyLite {
 
+    //Most player names kept in memory, the same as the server's own profile cache
+    private static final int PROFILE_CACHE_SIZE = 1000;
+
     public static EconomyLite access;
     private static EconomyService economyService;
     private static Currency currency;
     private static MySQLManager mySQL = null;
+    private static BalanceCache balanceCache = new BalanceCache();
+    private static NotificationDispatcher notifications = new NotificationDispatcher();
+    private static BalanceScoreboards scoreboards;
+    private static ProfileCache profileCache = new ProfileCache(PROFILE_CACHE_SIZE, TimeUnit.HOURS.toMillis(1));
+    private static BalanceJournal journal = null;
+    private static WriteBehindQueue writeBehind = null;
+    private static BusinessIndex businessIndex = new BusinessIndex();
+    private static TransferEngine transferEngine;
+    private static ConfirmationWheel confirmations = new ConfirmationWheel(60);
+    private static EconomyLiteAsyncAPI asyncAPI;
     private static HashMap<String, String> configOptions = new HashMap<String, String>();
     @Inject
     public Logger logger;
@@ -65,8 +94,9 @@ public class EconomyLite {
     public String version = EconomyLite.class.getAnnotation(Plugin.class).version();
     @Inject
     private SpongeStatsLite statsLite;
-    private FileManager fileManager;
-    private BusinessManager businessManager;
+    private static FileManager fileManager;
+    private static PlayerManager playerManager;
+    private static BusinessManager businessManager;
 
     public static boolean optionEnabled(String optionName) {
         if (configOptions.get(optionName).equalsIgnoreCase("enabled")) {
@@ -94,6 +124,17 @@ public class EconomyLite {
         }
     }
 
+    public static long getOptionLong(String optionName) {
+        if (!configOptions.containsKey(optionName)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(configOptions.get(optionName));
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
     public static Currency getCurrency() {
         if (currency == null) {
             currency = new LiteCurrency();
@@ -110,10 +151,65 @@ public class EconomyLite {
         }
     }
 
+    public static FileManager getFileManager() {
+        return fileManager;
+    }
+
+    public static PlayerManager getPlayerManager() {
+        return playerManager;
+    }
+
+    public static BusinessManager getBusinessManager() {
+        return businessManager;
+    }
+
     public static MySQLManager getMySQL() {
         return mySQL;
     }
 
+    public static BalanceCache getBalanceCache() {
+        return balanceCache;
+    }
+
+    public static NotificationDispatcher getNotifications() {
+        return notifications;
+    }
+
+    public static BalanceScoreboards getScoreboards() {
+        return scoreboards;
+    }
+
+    public static ProfileCache getProfileCache() {
+        return profileCache;
+    }
+
+    public static BalanceJournal getJournal() {
+        return journal;
+    }
+
+    public static WriteBehindQueue getWriteBehind() {
+        return writeBehind;
+    }
+
+    public static BusinessIndex getBusinessIndex() {
+        return businessIndex;
+    }
+
+    public static EconomyLiteAsyncAPI getAsyncAPI() {
+        return asyncAPI;
+    }
+
+    public static ConfirmationWheel getConfirmations() {
+        return confirmations;
+    }
+
+    public static TransferEngine getTransferEngine() {
+        if (transferEngine == null) {
+            transferEngine = new TransferEngine();
+        }
+        return transferEngine;
+    }
+
     @Listener
     public void onServerInitialize(GameInitializationEvent event) {
         logger.info("EconomyLite v" + version + " by Flibio initializing!");
@@ -121,12 +217,19 @@ public class EconomyLite {
         //Set the access
         access = this;
 
+        //Every class shares these, so there is one copy of the data in memory
         fileManager = new FileManager();
+        playerManager = new PlayerManager();
         businessManager = new BusinessManager();
 
         //Create files and load config options
         initializeFiles();
         loadConfigurationOptions();
+        //Balances are stored in the smallest unit of currency, which must be known before any are loaded
+        FixedPoint.configure(getOptionInteger("currency.fractionDigits"), getOptionLong("maxBalance"));
+        //Load the data files into memory
+        fileManager.loadFile(FileType.DATA);
+        fileManager.loadFile(FileType.BUSINESS_DATA);
         //Attempt to load MySQL if it is enabled
         Optional<SqlService> sqlServiceOptional = game.getServiceManager().provide(SqlService.class);
         if (optionEnabled("mysql.enabled") && sqlServiceOptional.isPresent()) {
@@ -135,30 +238,97 @@ public class EconomyLite {
             //Connect to the database
             logger.info("Enabling MySQL...");
             mySQL = new MySQLManager(getOption("mysql.hostname"), getOption("mysql.port"), getOption("mysql.database"),
-                    getOption("mysql.username"), getOption("mysql.password"), sqlServiceOptional.get());
+                    getOption("mysql.username"), getOption("mysql.password"), getOptionInteger("mysql.pool.minSize"),
+                    getOptionInteger("mysql.pool.maxSize"), getOptionInteger("mysql.pool.idleTimeout") * 1000L,
+                    getOption("mysql.pool.validationQuery"), sqlServiceOptional.get());
+            if (!mySQL.isReady()) {
+                //A partly upgraded database must not be used, the upgrade carries on from where it stopped next start
+                logger.error("The EconomyLite database is not up to date, EconomyLite will not start!");
+                mySQL.close();
+                mySQL = null;
+                return;
+            }
+            if (optionEnabled("mysql.writeBehind.enabled")) {
+                //Collect player balance changes and write them in batches
+                logger.info("Enabling MySQL write-behind...");
+                writeBehind = new WriteBehindQueue(mySQL, getOptionInteger("mysql.writeBehind.flushInterval"),
+                        getOptionInteger("mysql.writeBehind.batchSize"));
+                if (optionEnabled("mysql.writeBehind.journal")
+                        && !writeBehind.enableJournal(new File("config/EconomyLite/mysql.journal"), getOptionInteger("journal.compactAfter"))) {
+                    logger.error("Error opening mysql.journal, pending balances will not survive a crash!");
+                }
+                writeBehind.start();
+            }
+        } else if (optionEnabled("journal.enabled")) {
+            //Journal balance changes instead of rewriting data.conf
+            logger.info("Enabling balance journal...");
+            BalanceJournal balanceJournal = new BalanceJournal(fileManager, getOptionInteger("journal.compactAfter"));
+            if (balanceJournal.open()) {
+                journal = balanceJournal;
+            }
+        }
+        //Balances saved with other fraction digits would be read as the wrong amounts
+        if (!new StoredScale(fileManager).check()) {
+            logger.error("The stored balances don't match Currency-Fraction-Digits, EconomyLite will not start!");
+            closeStorage();
+            return;
+        }
+        asyncAPI = new EconomyLiteAsyncAPI();
+        //Business delete confirmations expire without touching storage
+        businessManager.resetAllConfirmations();
+        confirmations.start();
+        scoreboards = new BalanceScoreboards();
+        if (optionEnabled("scoreboard")) {
+            scoreboards.start();
         }
         //Register events and commands
         registerEvents();
         registerCommands();
         //Register EconomyLiteAPI
         game.getServiceManager().setProvider(this, EconomyLiteAPI.class, new EconomyLiteAPI());
+        game.getServiceManager().setProvider(this, EconomyLiteAsyncAPI.class, asyncAPI);
         economyService = new LiteEconomyService();
         game.getServiceManager().setProvider(this, EconomyService.class, economyService);
         logger.info("API registered successfully!");
-        //Reset business confirmations
-        game.getScheduler().createTaskBuilder().execute(new Runnable() {
-            public void run() {
-                fileManager.loadFile(FileType.BUSINESS_DATA);
-                ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-                for (ConfigurationNode raw : root.getChildrenMap().values()) {
-                    businessManager.setConfirmationNeeded(raw.getKey().toString(), true);
-                }
-            }
-        }).async().submit(this);
+    }
+
+    @Listener
+    public void onServerStopping(GameStoppingServerEvent event) {
+        //Nothing was started if EconomyLite refused to start
+        if (asyncAPI == null) {
+            return;
+        }
+        //Let queued API calls finish before storage is closed
+        asyncAPI.shutdown();
+        confirmations.stop();
+        scoreboards.stop();
+        //Report how long /balance took this session
+        if (BalanceCommand.getMainThreadMetrics().getCount() > 0) {
+            logger.info(BalanceCommand.getMainThreadMetrics().toString());
+            logger.info(BalanceCommand.getLookupMetrics().toString());
+        }
+        closeStorage();
+    }
+
+    private void closeStorage() {
+        //Write any pending data file changes
+        if (journal != null) {
+            journal.close();
+        }
+        fileManager.flush();
+        //Write the balances which are still pending
+        if (writeBehind != null) {
+            writeBehind.close(getOptionInteger("mysql.writeBehind.shutdownTimeout") * 1000L);
+        }
+        //Close the MySQL connection pool
+        if (mySQL != null) {
+            mySQL.close();
+        }
     }
 
     private void registerEvents() {
         game.getEventManager().registerListeners(this, new PlayerJoinListener());
+        game.getEventManager().registerListeners(this, new PlayerQuitListener());
         game.getEventManager().registerListeners(this, new BalanceChangeListener());
     }
 
@@ -178,19 +348,19 @@ public class EconomyLite {
         //Add Child Command
         CommandSpec addCommand = CommandSpec.builder()
                 .description(Text.of("Add currency to a player's balance"))
-                .arguments(GenericArguments.integer(Text.of("amount")), GenericArguments.string(Text.of("player")))
+                .arguments(GenericArguments.string(Text.of("amount")), GenericArguments.string(Text.of("player")))
                 .executor(new AddCommand())
                 .build();
         //Remove Child Command
         CommandSpec removeCommand = CommandSpec.builder()
                 .description(Text.of("Remove currency from a player's balance"))
-                .arguments(GenericArguments.integer(Text.of("amount")), GenericArguments.string(Text.of("player")))
+                .arguments(GenericArguments.string(Text.of("amount")), GenericArguments.string(Text.of("player")))
                 .executor(new RemoveCommand())
                 .build();
         //Set Child Command
         CommandSpec setCommand = CommandSpec.builder()
                 .description(Text.of("Set a player's balance"))
-                .arguments(GenericArguments.string(Text.of("player")), GenericArguments.integer(Text.of("amount")))
+                .arguments(GenericArguments.string(Text.of("player")), GenericArguments.string(Text.of("amount")))
                 .executor(new SetCommand())
                 .build();
         //Main Econ Command
@@ -243,7 +413,7 @@ public class EconomyLite {
             CommandSpec businessTransferCommand = CommandSpec.builder()
                     .description(Text.of("Transfer some of the business funds to your account"))
                     .permission("econ.busines.transfer")
-                    .arguments(GenericArguments.integer(Text.of("amount")), GenericArguments.remainingJoinedStrings(Text.of("business")))
+                    .arguments(GenericArguments.string(Text.of("amount")), GenericArguments.remainingJoinedStrings(Text.of("business")))
                     .executor(new BusinessTransferCommand())
                     .build();
             //Owners Child
@@ -271,14 +441,14 @@ public class EconomyLite {
         CommandSpec payCommand = CommandSpec.builder()
                 .description(Text.of("Pay another player or business"))
                 .permission("econ.pay")
-                .arguments(GenericArguments.integer(Text.of("amount")), GenericArguments.remainingJoinedStrings(Text.of("who")))
+                .arguments(GenericArguments.string(Text.of("amount")), GenericArguments.remainingJoinedStrings(Text.of("who")))
                 .executor(new PayCommand())
                 .build();
         game.getCommandManager().register(this, payCommand, "pay");
         CommandSpec payOverrideCommand = CommandSpec.builder()
                 .description(Text.of("Pay another player or business"))
                 .permission("econ.pay")
-                .arguments(GenericArguments.string(Text.of("whoType")), GenericArguments.integer(Text.of("amount")), GenericArguments.remainingJoinedStrings(Text.of("who")))
+                .arguments(GenericArguments.string(Text.of("whoType")), GenericArguments.string(Text.of("amount")), GenericArguments.remainingJoinedStrings(Text.of("who")))
                 .executor(new PayOverrideCommand())
                 .build();
         game.getCommandManager().register(this, payOverrideCommand, "paySpecified");
@@ -298,12 +468,25 @@ public class EconomyLite {
         fileManager.testDefault("Scoreboard", "disabled");
         fileManager.testDefault("Businesses", "enabled");
         fileManager.testDefault("Default-Currency", 0);
+        fileManager.testDefault("Currency-Fraction-Digits", 0);
+        fileManager.testDefault("Max-Balance", 1000000);
         fileManager.testDefault("MySQL.Enabled", "disabled");
         fileManager.testDefault("MySQL.Hostname", "hostname");
         fileManager.testDefault("MySQL.Port", 3306);
         fileManager.testDefault("MySQL.Database", "database");
         fileManager.testDefault("MySQL.Username", "username");
         fileManager.testDefault("MySQL.Password", "password");
+        fileManager.testDefault("MySQL.Pool.Min-Size", 1);
+        fileManager.testDefault("MySQL.Pool.Max-Size", 10);
+        fileManager.testDefault("MySQL.Pool.Idle-Timeout", 600);
+        fileManager.testDefault("MySQL.Pool.Validation-Query", "SELECT 1");
+        fileManager.testDefault("MySQL.Write-Behind.Enabled", "disabled");
+        fileManager.testDefault("MySQL.Write-Behind.Flush-Interval", 250);
+        fileManager.testDefault("MySQL.Write-Behind.Batch-Size", 500);
+        fileManager.testDefault("MySQL.Write-Behind.Journal", "enabled");
+        fileManager.testDefault("MySQL.Write-Behind.Shutdown-Timeout", 30);
+        fileManager.testDefault("Journal.Enabled", "disabled");
+        fileManager.testDefault("Journal.Compact-After", 10000);
     }
 
     //Loads all of the config options from the configuration file
@@ -316,12 +499,25 @@ public class EconomyLite {
         configOptions.put("scoreboard", fileManager.getConfigValue("Scoreboard"));
         configOptions.put("businesses", fileManager.getConfigValue("Businesses"));
         configOptions.put("defaultCurrency", fileManager.getConfigValue("Default-Currency"));
+        configOptions.put("currency.fractionDigits", fileManager.getConfigValue("Currency-Fraction-Digits"));
+        configOptions.put("maxBalance", fileManager.getConfigValue("Max-Balance"));
         configOptions.put("mysql.enabled", fileManager.getConfigValue("MySQL.Enabled"));
         configOptions.put("mysql.hostname", fileManager.getConfigValue("MySQL.Hostname"));
         configOptions.put("mysql.port", fileManager.getConfigValue("MySQL.Port"));
         configOptions.put("mysql.database", fileManager.getConfigValue("MySQL.Database"));
         configOptions.put("mysql.username", fileManager.getConfigValue("MySQL.Username"));
         configOptions.put("mysql.password", fileManager.getConfigValue("MySQL.Password"));
+        configOptions.put("mysql.pool.minSize", fileManager.getConfigValue("MySQL.Pool.Min-Size"));
+        configOptions.put("mysql.pool.maxSize", fileManager.getConfigValue("MySQL.Pool.Max-Size"));
+        configOptions.put("mysql.pool.idleTimeout", fileManager.getConfigValue("MySQL.Pool.Idle-Timeout"));
+        configOptions.put("mysql.pool.validationQuery", fileManager.getConfigValue("MySQL.Pool.Validation-Query"));
+        configOptions.put("mysql.writeBehind.enabled", fileManager.getConfigValue("MySQL.Write-Behind.Enabled"));
+        configOptions.put("mysql.writeBehind.flushInterval", fileManager.getConfigValue("MySQL.Write-Behind.Flush-Interval"));
+        configOptions.put("mysql.writeBehind.batchSize", fileManager.getConfigValue("MySQL.Write-Behind.Batch-Size"));
+        configOptions.put("mysql.writeBehind.journal", fileManager.getConfigValue("MySQL.Write-Behind.Journal"));
+        configOptions.put("mysql.writeBehind.shutdownTimeout", fileManager.getConfigValue("MySQL.Write-Behind.Shutdown-Timeout"));
+        configOptions.put("journal.enabled", fileManager.getConfigValue("Journal.Enabled"));
+        configOptions.put("journal.compactAfter", fileManager.getConfigValue("Journal.Compact-After"));
     }
 
 }
@@ -0,0 +1,49 @@
+package me.Flibio.EconomyLite.Events;
+
+import org.spongepowered.api.event.cause.Cause;
+import org.spongepowered.api.event.impl.AbstractEvent;
+import org.spongepowered.api.service.economy.transaction.TransactionResult;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public class BatchTransactionEvent extends AbstractEvent {
+
+	private List<TransactionResult> results;
+	private Set<UUID> changedPlayers;
+
+	/**
+	 * Sponge event called once after a batch of balance changes was applied
+	 * @param results
+	 * 	The result of every entry in the batch
+	 * @param changedPlayers
+	 * 	The UUIDs of the players whose balance changed
+	 */
+	public BatchTransactionEvent(List<TransactionResult> results, Set<UUID> changedPlayers) {
+		this.results = results;
+		this.changedPlayers = changedPlayers;
+	}
+
+	/**
+	 * Gets the result of every entry in the batch
+	 * @return Results in the order the entries were given
+	 */
+	public List<TransactionResult> getResults() {
+		return results;
+	}
+
+	/**
+	 * Gets the UUIDs of the players whose balance changed
+	 * @return Set of player UUIDs
+	 */
+	public Set<UUID> getChangedPlayers() {
+		return changedPlayers;
+	}
+
+	@Override
+	public Cause getCause() {
+		return Cause.of("EconomyLite");
+	}
+
+}
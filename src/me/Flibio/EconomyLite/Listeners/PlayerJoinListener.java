@@ -4,61 +4,46 @@ import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.network.ClientConnectionEvent;
 import org.spongepowered.api.scheduler.Task.Builder;
-import org.spongepowered.api.service.economy.Currency;
 import org.spongepowered.api.service.economy.EconomyService;
-import org.spongepowered.api.service.economy.account.UniqueAccount;
-import org.spongepowered.api.text.Text;
-import org.spongepowered.api.text.format.TextColors;
-
-import java.math.RoundingMode;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Optional;
 
 import me.Flibio.EconomyLite.EconomyLite;
 import me.Flibio.EconomyLite.Utils.BusinessManager;
-import me.Flibio.EconomyLite.Utils.ScoreboardUtils;
 import me.Flibio.EconomyLite.Utils.TextUtils;
 
 public class PlayerJoinListener {
 
-	private ScoreboardUtils scoreboardUtils = new ScoreboardUtils();
 	private EconomyService economyService = EconomyLite.getService();
-	private Currency currency = EconomyLite.getService().getDefaultCurrency();
 	private Builder taskBuilder = EconomyLite.access.game.getScheduler().createTaskBuilder();
 	
 	@Listener
 	public void onPlayerJoin(ClientConnectionEvent.Join event) {
 		Player player = event.getTargetEntity();
+		EconomyLite.getNotifications().playerJoined(player);
+		EconomyLite.getProfileCache().put(player.getUniqueId(), player.getName());
 		
-		economyService.getOrCreateAccount(player.getUniqueId());
+		//Another server sharing the database may have changed the balance, with write-behind the cache holds the newest balance
+		if(EconomyLite.access.sqlEnabled&&EconomyLite.getWriteBehind()==null) {
+			EconomyLite.getBalanceCache().invalidate(player.getUniqueId());
+		}
 		
-		//Show scoreboard if it is enabled
-		if(EconomyLite.optionEnabled("scoreboard")) {
-			Text displayName = Text.builder("EconomyLite").color(TextColors.YELLOW).build();
-			Text balanceLabel = Text.builder("Balance: ").color(TextColors.GREEN).build();
-			
-			HashMap<Text, Integer> objectiveValues = new HashMap<>();
-			Optional<UniqueAccount> uOpt = economyService.getOrCreateAccount(player.getUniqueId());
-			if(uOpt.isPresent()) {
-				UniqueAccount account = uOpt.get();
-				objectiveValues.put(balanceLabel, account.getBalance(currency).setScale(0, RoundingMode.HALF_UP).intValue());
-				
-				player.setScoreboard(scoreboardUtils.createScoreboard("EconomyLite", displayName, objectiveValues));
+		//Load the account off the main thread, then show the scoreboard if it is enabled
+		EconomyLite.getAsyncAPI().submit(() -> {
+			return economyService.getOrCreateAccount(player.getUniqueId()).isPresent();
+		}).thenAccept(created -> {
+			if(created&&EconomyLite.optionEnabled("scoreboard")) {
+				EconomyLite.getScoreboards().markDirty(player.getUniqueId());
 			}
-		}
+		});
 
 		//Check if the player has any invites
 		taskBuilder.execute(() -> {
-            BusinessManager manager = new BusinessManager();
+            BusinessManager manager = EconomyLite.getBusinessManager();
 
-            ArrayList<String> businesses = manager.getAllBusinesses();
 			//Tell player that he/she is invited
-			businesses.stream().filter(manager::businessExists).filter(business -> manager.isInvited(business, player.getUniqueId().toString())).forEach(business -> {
-				//Tell player that he/she is invited
-				player.sendMessage(TextUtils.invited(manager.getCorrectBusinessName(business)));
+			for(String business : manager.getInvites(player.getUniqueId().toString())) {
+				player.sendMessage(TextUtils.invited(business));
 				player.sendMessage(TextUtils.clickToContinue("/business inviteAccept " + business));
-			});
+			}
         }).async().submit(EconomyLite.access);
 	}
 	
@@ -0,0 +1,16 @@
+package me.Flibio.EconomyLite.Listeners;
+
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.network.ClientConnectionEvent;
+
+import me.Flibio.EconomyLite.EconomyLite;
+
+public class PlayerQuitListener {
+
+	@Listener
+	public void onPlayerQuit(ClientConnectionEvent.Disconnect event) {
+		EconomyLite.getNotifications().playerLeft(event.getTargetEntity());
+		EconomyLite.getScoreboards().playerLeft(event.getTargetEntity().getUniqueId());
+	}
+
+}
@@ -0,0 +1,125 @@
+package me.Flibio.EconomyLite.Utils;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BalanceCache {
+
+	private ConcurrentHashMap<UUID, AtomicLong> balances = new ConcurrentHashMap<UUID, AtomicLong>();
+	//Locks are kept apart from the balances, so invalidating a balance never hands out a second lock
+	private ConcurrentHashMap<UUID, Object> locks = new ConcurrentHashMap<UUID, Object>();
+
+	/**
+	 * In-memory copy of player balances, kept up to date by the PlayerManager
+	 * whenever a balance is written to the active storage backend.
+	 */
+	public BalanceCache() {
+
+	}
+
+	/**
+	 * Checks if a balance is cached for the given player
+	 * @param uuid
+	 * 	UUID of the player to check
+	 * @return
+	 * 	If a balance is cached or not
+	 */
+	public boolean contains(UUID uuid) {
+		return balances.containsKey(uuid);
+	}
+
+	/**
+	 * Gets the cached balance of the given player
+	 * @param uuid
+	 * 	UUID of the player whose balance to get
+	 * @return
+	 * 	The cached balance(-1 if the balance is not cached)
+	 */
+	public long get(UUID uuid) {
+		AtomicLong cell = balances.get(uuid);
+		if(cell==null) return -1;
+		return cell.get();
+	}
+
+	/**
+	 * Caches the balance of the given player
+	 * @param uuid
+	 * 	UUID of the player whose balance to cache
+	 * @param balance
+	 * 	The balance which was written to storage
+	 */
+	public void put(UUID uuid, long balance) {
+		AtomicLong cell = balances.get(uuid);
+		if(cell==null) {
+			cell = balances.putIfAbsent(uuid, new AtomicLong(balance));
+			if(cell==null) return;
+		}
+		cell.set(balance);
+	}
+
+	/**
+	 * Atomically adds an amount to a cached balance, as long as the result stays within the limits
+	 * @param uuid
+	 * 	UUID of the player whose balance to change
+	 * @param amount
+	 * 	Amount to add(negative to remove)
+	 * @param max
+	 * 	Highest balance the player is allowed to have
+	 * @return
+	 * 	The new balance(-1 if the balance is not cached or the result would be out of range)
+	 */
+	public long add(UUID uuid, long amount, long max) {
+		AtomicLong cell = balances.get(uuid);
+		if(cell==null) return -1;
+		while(true) {
+			long current = cell.get();
+			long updated;
+			try {
+				updated = Math.addExact(current, amount);
+			} catch(ArithmeticException e) {
+				return -1;
+			}
+			if(updated<0||updated>max) return -1;
+			if(cell.compareAndSet(current, updated)) return updated;
+		}
+	}
+	
+	/**
+	 * Gets an object which can be used to hold a player's balance still while it is being changed
+	 * @param uuid
+	 * 	UUID of the player whose balance to lock
+	 * @return
+	 * 	The lock object, always the same one for a player
+	 */
+	public Object getLock(UUID uuid) {
+		return locks.computeIfAbsent(uuid, key -> new Object());
+	}
+	
+	/**
+	 * Caches a balance read from storage, unless a newer balance was cached in the meantime
+	 * @param uuid
+	 * 	UUID of the player whose balance to cache
+	 * @param balance
+	 * 	The balance which was read from storage
+	 */
+	public void putIfAbsent(UUID uuid, long balance) {
+		balances.putIfAbsent(uuid, new AtomicLong(balance));
+	}
+
+	/**
+	 * Removes the cached balance of the given player, the next read will go to storage
+	 * @param uuid
+	 * 	UUID of the player whose balance to invalidate
+	 */
+	public void invalidate(UUID uuid) {
+		balances.remove(uuid);
+	}
+
+	/**
+	 * Removes every cached balance
+	 */
+	public void invalidateAll() {
+		balances.clear();
+	}
+}
@@ -0,0 +1,257 @@
+package me.Flibio.EconomyLite.Utils;
+
+import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.Utils.FileManager.FileType;
+
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+public class BalanceJournal {
+
+	//uuid(16) + balance(8) + checksum(4) + padding(4)
+	private static final int RECORD_SIZE = 32;
+	//Most records that are written before the journal is synced to disk
+	private static final int GROUP_SIZE = 512;
+
+	private File file;
+	private FileChannel channel;
+	private Store store;
+	private int compactAfter;
+	private int recordsSinceSnapshot = 0;
+
+	private LinkedBlockingQueue<Record> queue = new LinkedBlockingQueue<Record>();
+	private Thread writerThread;
+	private volatile boolean running = false;
+
+	private Logger logger = EconomyLite.access.logger;
+
+	/**
+	 * Append-only journal of player balance changes, used instead of rewriting data.conf on every change.
+	 *
+	 * data.conf is kept as a snapshot, the journal holds every change since the snapshot was written.
+	 * @param fileManager
+	 * 	FileManager holding the resident copy of data.conf
+	 * @param compactAfter
+	 * 	Number of records after which the journal is compacted into a new snapshot
+	 */
+	public BalanceJournal(FileManager fileManager, int compactAfter) {
+		this(new File("config/EconomyLite/data.journal"), compactAfter, new Store() {
+			@Override
+			public void restore(String uuid, long balance) {
+				fileManager.getFile(FileType.DATA).getNode(uuid).getNode("balance").setValue(balance);
+			}
+
+			@Override
+			public boolean snapshot() {
+				return fileManager.saveFileNow(FileType.DATA);
+			}
+		});
+	}
+
+	/**
+	 * Append-only journal of player balance changes, kept until the store has saved them
+	 * @param file
+	 * 	The journal file
+	 * @param compactAfter
+	 * 	Number of records after which the journal is compacted into a new snapshot
+	 * @param store
+	 * 	Where the balances are replayed to and snapshotted
+	 */
+	public BalanceJournal(File file, int compactAfter, Store store) {
+		this.file = file;
+		this.store = store;
+		this.compactAfter = Math.max(1, compactAfter);
+	}
+
+	/**
+	 * Replays the journal onto data.conf and starts accepting new records
+	 * @return
+	 * 	If the journal was opened successfully
+	 */
+	public boolean open() {
+		try {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			int replayed = replay();
+			if(replayed>0) {
+				logger.info("Replayed "+replayed+" balance changes from "+file.getName());
+				compact();
+			} else {
+				//Drop any partially written record
+				channel.truncate(0);
+				channel.position(0);
+			}
+		} catch (IOException e) {
+			logger.error("Error opening "+file.getName()+"!");
+			logger.error(e.getMessage());
+			return false;
+		}
+		running = true;
+		writerThread = new Thread(this::writeLoop, "EconomyLite-Journal");
+		writerThread.setDaemon(true);
+		writerThread.start();
+		return true;
+	}
+
+	/**
+	 * Adds a balance change to the journal, it will be synced to disk shortly
+	 * @param uuid
+	 * 	UUID of the player whose balance changed
+	 * @param balance
+	 * 	The player's new balance
+	 */
+	public void append(String uuid, long balance) {
+		try {
+			queue.add(new Record(UUID.fromString(uuid), balance));
+		} catch(IllegalArgumentException e) {
+			logger.error("Error journaling balance of "+uuid+"!");
+		}
+	}
+
+	/**
+	 * Writes every queued record, compacts the journal and closes it
+	 */
+	public void close() {
+		running = false;
+		if(writerThread!=null) {
+			try {
+				writerThread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		try {
+			compact();
+			channel.close();
+		} catch (IOException e) {
+			logger.error("Error closing "+file.getName()+"!");
+			logger.error(e.getMessage());
+		}
+	}
+
+	private void writeLoop() {
+		ArrayList<Record> group = new ArrayList<Record>(GROUP_SIZE);
+		ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * GROUP_SIZE);
+		while(running||!queue.isEmpty()) {
+			try {
+				Record first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if(first==null) continue;
+				group.add(first);
+				queue.drainTo(group, GROUP_SIZE - 1);
+				write(group, buffer);
+				group.clear();
+				if(recordsSinceSnapshot>=compactAfter) compact();
+			} catch (InterruptedException e) {
+				running = false;
+			} catch (IOException e) {
+				logger.error("Error writing to "+file.getName()+"!");
+				logger.error(e.getMessage());
+				group.clear();
+			}
+		}
+	}
+
+	private void write(ArrayList<Record> group, ByteBuffer buffer) throws IOException {
+		buffer.clear();
+		CRC32 crc = new CRC32();
+		for(Record record : group) {
+			int start = buffer.position();
+			buffer.putLong(record.uuid.getMostSignificantBits());
+			buffer.putLong(record.uuid.getLeastSignificantBits());
+			buffer.putLong(record.balance);
+			crc.reset();
+			crc.update(buffer.array(), start, 24);
+			buffer.putInt((int) crc.getValue());
+			buffer.putInt(0);
+		}
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		//One sync for the whole group
+		channel.force(false);
+		recordsSinceSnapshot += group.size();
+	}
+
+	private int replay() throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+		CRC32 crc = new CRC32();
+		int replayed = 0;
+		channel.position(0);
+		while(true) {
+			record.clear();
+			while(record.hasRemaining()&&channel.read(record)>=0) {}
+			//Stop at the end of the file or at a partially written record
+			if(record.hasRemaining()) break;
+			crc.reset();
+			crc.update(record.array(), 0, 24);
+			if(record.getInt(24)!=(int) crc.getValue()) {
+				logger.warn(file.getName()+" contains a damaged record, ignoring the rest of it");
+				break;
+			}
+			UUID uuid = new UUID(record.getLong(0), record.getLong(8));
+			store.restore(uuid.toString(), record.getLong(16));
+			replayed++;
+		}
+		return replayed;
+	}
+
+	private void compact() throws IOException {
+		//Queued records are synced first, so emptying the journal never loses one which is not in the snapshot
+		ArrayList<Record> group = new ArrayList<Record>(GROUP_SIZE);
+		ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * GROUP_SIZE);
+		while(queue.drainTo(group, GROUP_SIZE)>0) {
+			write(group, buffer);
+			group.clear();
+		}
+		if(recordsSinceSnapshot==0&&channel.size()==0) return;
+		//Write a new snapshot, then start an empty journal
+		if(!store.snapshot()) return;
+		channel.truncate(0);
+		channel.position(0);
+		channel.force(true);
+		recordsSinceSnapshot = 0;
+	}
+
+	/**
+	 * Storage the journal is replayed to, and compacted into
+	 */
+	public interface Store {
+
+		/**
+		 * Restores a balance read back from the journal
+		 * @param uuid
+		 * 	UUID of the player
+		 * @param balance
+		 * 	The player's balance
+		 */
+		void restore(String uuid, long balance);
+
+		/**
+		 * Saves every balance, after which the journal is emptied
+		 * @return
+		 * 	If every balance was saved
+		 */
+		boolean snapshot();
+	}
+
+	private static class Record {
+
+		private UUID uuid;
+		private long balance;
+
+		private Record(UUID uuid, long balance) {
+			this.uuid = uuid;
+			this.balance = balance;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package me.Flibio.EconomyLite.Utils;
+
+import me.Flibio.EconomyLite.EconomyLite;
+
+import org.spongepowered.api.Game;
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.api.scoreboard.Score;
+import org.spongepowered.api.scoreboard.Scoreboard;
+import org.spongepowered.api.scoreboard.critieria.Criteria;
+import org.spongepowered.api.scoreboard.displayslot.DisplaySlots;
+import org.spongepowered.api.scoreboard.objective.Objective;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColors;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BalanceScoreboards {
+
+	private static final Text DISPLAY_NAME = Text.builder("EconomyLite").color(TextColors.YELLOW).build();
+	private static final Text BALANCE_LABEL = Text.builder("Balance: ").color(TextColors.GREEN).build();
+
+	//Balance score of every player who has been shown a scoreboard
+	private ConcurrentHashMap<UUID, Score> scores = new ConcurrentHashMap<UUID, Score>();
+	//Players whose balance changed since the last update
+	private Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+	//Players whose balance is being read from storage off the main thread
+	private Set<UUID> loading = ConcurrentHashMap.newKeySet();
+	private Game game = EconomyLite.access.game;
+	private Task updateTask;
+
+	/**
+	 * Shows players their balance on a sidebar scoreboard.
+	 *
+	 * Every player gets one scoreboard which is kept while they are online, a balance change only
+	 * marks the player and the score is set once per tick no matter how often the balance changed.
+	 * Scoreboards are only touched on the main thread, balances which are not cached are read
+	 * off the main thread first.
+	 */
+	public BalanceScoreboards() {
+
+	}
+
+	/**
+	 * Starts updating the marked scoreboards every tick, on the main thread
+	 */
+	public void start() {
+		updateTask = game.getScheduler().createTaskBuilder().execute(() -> {
+			update();
+		}).intervalTicks(1).submit(EconomyLite.access);
+	}
+
+	/**
+	 * Stops updating the scoreboards
+	 */
+	public void stop() {
+		if(updateTask!=null) updateTask.cancel();
+	}
+
+	/**
+	 * Marks the scoreboard of a player to be updated on the next tick
+	 * @param uuid
+	 * 	UUID of the player
+	 */
+	public void markDirty(UUID uuid) {
+		dirty.add(uuid);
+	}
+
+	/**
+	 * Forgets the scoreboard of a player who left the server
+	 * @param uuid
+	 * 	UUID of the player
+	 */
+	public void playerLeft(UUID uuid) {
+		dirty.remove(uuid);
+		loading.remove(uuid);
+		scores.remove(uuid);
+	}
+
+	//Runs on the main thread
+	private void update() {
+		BalanceCache balanceCache = EconomyLite.getBalanceCache();
+		Iterator<UUID> marked = dirty.iterator();
+		while(marked.hasNext()) {
+			UUID uuid = marked.next();
+			marked.remove();
+			Optional<Player> player = EconomyLite.getNotifications().getPlayer(uuid.toString());
+			if(!player.isPresent()) continue;
+			long balance = balanceCache.get(uuid);
+			if(balance<0) {
+				load(uuid);
+				continue;
+			}
+			//Scores are ints, so the scoreboard shows whole units
+			int value = (int) Math.min(Integer.MAX_VALUE, FixedPoint.toWhole(balance));
+			Score score = scores.get(uuid);
+			if(score==null) {
+				score = createScoreboard(player.get());
+				scores.put(uuid, score);
+			}
+			score.setScore(value);
+		}
+	}
+
+	//Reads a balance into the cache off the main thread, then marks the player again
+	private void load(UUID uuid) {
+		if(!loading.add(uuid)) return;
+		EconomyLite.getAsyncAPI().submit(() -> {
+			return EconomyLite.getPlayerManager().getBalance(uuid.toString());
+		}).whenComplete((balance, error) -> {
+			loading.remove(uuid);
+			if(error==null&&balance>=0) markDirty(uuid);
+		});
+	}
+
+	//Gives the player their scoreboard, returning the score which shows the balance
+	private Score createScoreboard(Player player) {
+		Scoreboard board = game.getRegistry().createBuilder(Scoreboard.Builder.class).build();
+		Objective obj = game.getRegistry().createBuilder(Objective.Builder.class).name("EconomyLite").criterion(Criteria.DUMMY).displayName(DISPLAY_NAME).build();
+		Score score = obj.getOrCreateScore(BALANCE_LABEL);
+		board.updateDisplaySlot(obj,DisplaySlots.SIDEBAR);
+		player.setScoreboard(board);
+		return score;
+	}
+}
@@ -0,0 +1,203 @@
+package me.Flibio.EconomyLite.Utils;
+
+import ninja.leaping.configurate.ConfigurationNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BusinessIndex {
+
+	private ConcurrentHashMap<String, ConfigurationNode> businesses = new ConcurrentHashMap<String, ConfigurationNode>();
+	//Owner UUID -> indexed names of the businesses they own
+	private ConcurrentHashMap<String, Set<String>> ownedBusinesses = new ConcurrentHashMap<String, Set<String>>();
+	//Invited UUID -> indexed names of the businesses they are invited to
+	private ConcurrentHashMap<String, Set<String>> invitedBusinesses = new ConcurrentHashMap<String, Set<String>>();
+	private volatile boolean built = false;
+
+	/**
+	 * Case-insensitive index of the businesses in the resident businesses file,
+	 * kept up to date by the BusinessManager whenever a business is created, deleted or changes owners or invites.
+	 */
+	public BusinessIndex() {
+
+	}
+
+	/**
+	 * Checks if the index has been built
+	 * @return
+	 * 	If the index has been built or not
+	 */
+	public boolean isBuilt() {
+		return built;
+	}
+
+	/**
+	 * Fills the index with every business in the businesses file
+	 * @param root
+	 * 	Root node of the resident businesses file
+	 */
+	public synchronized void build(ConfigurationNode root) {
+		if(built) return;
+		for(ConfigurationNode business : root.getChildrenMap().values()) {
+			Object raw = business.getKey();
+			if(raw instanceof String) {
+				put(business);
+			}
+		}
+		built = true;
+	}
+
+	/**
+	 * Gets the node of a business
+	 * @param businessName
+	 * 	Name of the business, in any capitalization
+	 * @return
+	 * 	The node of the business, null if it is not indexed
+	 */
+	public ConfigurationNode get(String businessName) {
+		return businesses.get(normalize(businessName));
+	}
+
+	/**
+	 * Gets the node of every indexed business
+	 * @return
+	 * 	Nodes of all businesses
+	 */
+	public Collection<ConfigurationNode> getAll() {
+		return businesses.values();
+	}
+
+	/**
+	 * Adds a business to the index
+	 * @param business
+	 * 	The node of the business
+	 */
+	public void put(ConfigurationNode business) {
+		String businessName = business.getKey().toString();
+		businesses.put(normalize(businessName), business);
+		for(String owner : BusinessManager.getStringListValues(business.getNode("owners"))) {
+			addOwner(owner, businessName);
+		}
+		for(String invitee : BusinessManager.getStringListValues(business.getNode("invited"))) {
+			addInvite(invitee, businessName);
+		}
+	}
+
+	/**
+	 * Removes a business from the index
+	 * @param businessName
+	 * 	Name of the business, in any capitalization
+	 */
+	public void remove(String businessName) {
+		ConfigurationNode business = businesses.remove(normalize(businessName));
+		if(business==null) return;
+		for(String owner : BusinessManager.getStringListValues(business.getNode("owners"))) {
+			removeOwner(owner, businessName);
+		}
+		for(String invitee : BusinessManager.getStringListValues(business.getNode("invited"))) {
+			removeInvite(invitee, businessName);
+		}
+	}
+
+	/**
+	 * Records that a player owns a business
+	 * @param uuid
+	 * 	UUID of the owner
+	 * @param businessName
+	 * 	Name of the business, in any capitalization
+	 */
+	public void addOwner(String uuid, String businessName) {
+		link(ownedBusinesses, uuid, businessName);
+	}
+
+	/**
+	 * Records that a player no longer owns a business
+	 * @param uuid
+	 * 	UUID of the former owner
+	 * @param businessName
+	 * 	Name of the business, in any capitalization
+	 */
+	public void removeOwner(String uuid, String businessName) {
+		unlink(ownedBusinesses, uuid, businessName);
+	}
+
+	/**
+	 * Gets every business a player owns
+	 * @param uuid
+	 * 	UUID of the owner
+	 * @return
+	 * 	Correctly capitalized names of the businesses
+	 */
+	public ArrayList<String> getBusinesses(String uuid) {
+		return getLinked(ownedBusinesses, uuid);
+	}
+
+	/**
+	 * Records that a player was invited to a business
+	 * @param uuid
+	 * 	UUID of the invited player
+	 * @param businessName
+	 * 	Name of the business, in any capitalization
+	 */
+	public void addInvite(String uuid, String businessName) {
+		link(invitedBusinesses, uuid, businessName);
+	}
+
+	/**
+	 * Records that a player is no longer invited to a business
+	 * @param uuid
+	 * 	UUID of the player
+	 * @param businessName
+	 * 	Name of the business, in any capitalization
+	 */
+	public void removeInvite(String uuid, String businessName) {
+		unlink(invitedBusinesses, uuid, businessName);
+	}
+
+	/**
+	 * Gets every business a player is invited to
+	 * @param uuid
+	 * 	UUID of the player
+	 * @return
+	 * 	Correctly capitalized names of the businesses
+	 */
+	public ArrayList<String> getInvites(String uuid) {
+		return getLinked(invitedBusinesses, uuid);
+	}
+
+	private void link(ConcurrentHashMap<String, Set<String>> index, String uuid, String businessName) {
+		index.computeIfAbsent(uuid, key -> ConcurrentHashMap.newKeySet()).add(normalize(businessName));
+	}
+
+	private void unlink(ConcurrentHashMap<String, Set<String>> index, String uuid, String businessName) {
+		Set<String> linked = index.get(uuid);
+		if(linked!=null) linked.remove(normalize(businessName));
+	}
+
+	private ArrayList<String> getLinked(ConcurrentHashMap<String, Set<String>> index, String uuid) {
+		ArrayList<String> names = new ArrayList<String>();
+		Set<String> linked = index.get(uuid);
+		if(linked==null) return names;
+		for(String businessName : linked) {
+			ConfigurationNode business = businesses.get(businessName);
+			if(business!=null) names.add(business.getKey().toString());
+		}
+		return names;
+	}
+
+	/**
+	 * Gets the key a business name is indexed under
+	 * @param businessName
+	 * 	Name of the business
+	 * @return
+	 * 	The lower case business name
+	 */
+	public static String normalize(String businessName) {
+		//The root locale lower cases the same way on every server
+		return businessName.toLowerCase(Locale.ROOT);
+	}
+
+}
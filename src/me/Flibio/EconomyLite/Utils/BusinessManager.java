@@ -1,10 +1,13 @@
 package me.Flibio.EconomyLite.Utils;
 
 import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.API.LiteEconomyService;
 import me.Flibio.EconomyLite.Utils.FileManager.FileType;
 import me.Flibio.EconomyLite.Utils.MySQLManager.ChangeAction;
 import ninja.leaping.configurate.ConfigurationNode;
 
+import org.spongepowered.api.service.economy.EconomyService;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,7 +23,7 @@ public class BusinessManager {
 	 * If possible, you should run these methods in a seperate thread.
 	 */
 	public BusinessManager() {
-		fileManager = new FileManager();
+		fileManager = EconomyLite.getFileManager();
 	}
 	
 	/**
@@ -34,24 +37,23 @@ public class BusinessManager {
 		if(EconomyLite.access.sqlEnabled) {
 			//MySQL
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(mySQL.businessExists(businessName)) return false;
 			return mySQL.newBusiness(businessName);
 		} else {
-			//Load and get the business file
-			fileManager.loadFile(FileType.BUSINESS_DATA);
+			BusinessIndex index = getIndex();
 			ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-			//Check if business exists
-			if(!businessExists(businessName)) {
+			//Only one business can be created or deleted at a time
+			synchronized(index) {
+				//Check if business exists
+				if(index.get(businessName)!=null) return false;
 				//Set the balance and the owner of the business
-				root.getNode(businessName).getNode("balance").setValue(0);
-				root.getNode(businessName).getNode("owners").setValue(new ArrayList<String>());
-				root.getNode(businessName).getNode("invited").setValue(new ArrayList<String>());
-				root.getNode(businessName).getNode("confirmNeeded").setValue(true);
-				fileManager.saveFile(FileType.BUSINESS_DATA, root);
-				return true;
-			} else {
-				return false;
+				ConfigurationNode business = root.getNode(businessName);
+				business.getNode("balance").setValue(0);
+				business.getNode("owners").setValue(new ArrayList<String>());
+				business.getNode("invited").setValue(new ArrayList<String>());
+				index.put(business);
 			}
+			fileManager.saveFile(FileType.BUSINESS_DATA, root);
+			return true;
 		}
 	}
 	
@@ -67,20 +69,7 @@ public class BusinessManager {
 			MySQLManager mySQL = EconomyLite.getMySQL();
 			return mySQL.businessExists(businessName);
 		} else {
-			//Load and get the businesses file
-			fileManager.loadFile(FileType.BUSINESS_DATA);
-			ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-			//Check if the business name is in the business file
-			for(Object raw : root.getChildrenMap().keySet()) {
-				if(raw instanceof String) {
-					String business = (String) raw;
-					
-					if(business.trim().equalsIgnoreCase(businessName.trim())) {
-						return true;
-					}
-				}
-			}
-			return false;
+			return getBusiness(businessName)!=null;
 		}
 	}
 	
@@ -89,31 +78,25 @@ public class BusinessManager {
 	 * @param businessName
 	 * 	Name of the business whose balance to get
 	 * @return
-	 * 	Integer of the balance of the business(-1 if an error occured)
+	 * 	The balance of the business in the smallest unit of currency(-1 if an error occured)
 	 */
-	public int getBusinessBalance(String businessName) {
+	public long getBusinessBalance(String businessName) {
 		if(EconomyLite.access.sqlEnabled) {
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return -1;
 			return mySQL.getBusinessBalance(businessName);
 		} else {
-			//Check if the business exists
-			if(businessExists(businessName)) {
-				ConfigurationNode business = getBusiness(businessName);
-				if(business==null) return -1;
-				//Read the balance
-				ConfigurationNode balance = business.getNode("balance");
-				String rawBalance = balance.getString();
-				int intBalance;
-				try {
-					intBalance = Integer.parseInt(rawBalance);
-				} catch(NumberFormatException e) {
-					return -1;
-				}
-				return intBalance;
-			} else {
+			ConfigurationNode business = getBusiness(businessName);
+			if(business==null) return -1;
+			//Read the balance
+			ConfigurationNode balance = business.getNode("balance");
+			String rawBalance = balance.getString();
+			long longBalance;
+			try {
+				longBalance = Long.parseLong(rawBalance);
+			} catch(NumberFormatException e) {
 				return -1;
 			}
+			return longBalance;
 		}
 	}
 	
@@ -126,27 +109,20 @@ public class BusinessManager {
 	 * @return
 	 * 	Boolean based on if the method was successful or not
 	 */
-	public boolean setBusinessBalance(String businessName, int amount) {
+	public boolean setBusinessBalance(String businessName, long amount) {
 		if(EconomyLite.access.sqlEnabled) {
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return false;
 			return mySQL.setBusinessBalance(businessName, amount);
 		} else {
-			//Load and get the business file
-			fileManager.loadFile(FileType.BUSINESS_DATA);
-			ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-			//Check if business exists
-			if(businessExists(businessName)) {
-				ConfigurationNode business = getBusiness(businessName);
-				if(business==null) return false;
-				if(amount<0||amount>1000000) return false;
-				//Change the balance
-				root.getNode(business.getKey()).getNode("balance").setValue(amount);
-				fileManager.saveFile(FileType.BUSINESS_DATA, root);
-				return true;
-			} else {
-				return false;
+			ConfigurationNode business = getBusiness(businessName);
+			if(business==null) return false;
+			if(!FixedPoint.inRange(amount)) return false;
+			//Change the balance
+			synchronized(business) {
+				business.getNode("balance").setValue(amount);
 			}
+			fileManager.saveFile(FileType.BUSINESS_DATA, fileManager.getFile(FileType.BUSINESS_DATA));
+			return true;
 		}
 	}
 	
@@ -162,15 +138,10 @@ public class BusinessManager {
 			MySQLManager mySQL = EconomyLite.getMySQL();
 			return mySQL.getOwners(businessName);
 		} else {
-			//Check if business exists
-			if(businessExists(businessName)) {
-				ConfigurationNode business = getBusiness(businessName);
-				if(business==null) return null;
-				ArrayList<String> owners = getStringListValues(business.getNode("owners"));
-				return owners;
-			} else {
-				return null;
-			}
+			ConfigurationNode business = getBusiness(businessName);
+			if(business==null) return null;
+			ArrayList<String> owners = getStringListValues(business.getNode("owners"));
+			return owners;
 		}
 	}
 	
@@ -186,22 +157,12 @@ public class BusinessManager {
 	public boolean ownerExists(String businessName, String uuid) {
 		if(EconomyLite.access.sqlEnabled) {
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return false;
 			return mySQL.getOwners(businessName).contains(uuid);
 		} else {
-			//Check if business exists
-			if(businessExists(businessName)) {
-				ConfigurationNode business = getBusiness(businessName);
-				if(business==null) return false;
-				ArrayList<String> owners = getStringListValues(business.getNode("owners"));
-				if(owners.contains(uuid)) {
-					return true;
-				} else {
-					return false;
-				}
-			} else {
-				return false;
-			}
+			ConfigurationNode business = getBusiness(businessName);
+			if(business==null) return false;
+			ArrayList<String> owners = getStringListValues(business.getNode("owners"));
+			return owners.contains(uuid);
 		}
 	}
 	
@@ -217,25 +178,18 @@ public class BusinessManager {
 	public boolean addOwner(String businessName, String uuid) {
 		if(EconomyLite.access.sqlEnabled) {
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return false;
 			return mySQL.setOwner(ChangeAction.ADD, uuid, businessName);
 		} else {
-			//Load and get the business file
-			fileManager.loadFile(FileType.BUSINESS_DATA);
-			ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-			//Check if business exists
-			if(businessExists(businessName)) {
-				ConfigurationNode business = getBusiness(businessName);
-				if(business==null) return false;
+			ConfigurationNode business = getBusiness(businessName);
+			if(business==null) return false;
+			synchronized(business) {
 				ArrayList<String> owners = getStringListValues(business.getNode("owners"));
 				owners.add(uuid);
-				
-				root.getNode(business.getKey()).getNode("owners").setValue(owners);
-				fileManager.saveFile(FileType.BUSINESS_DATA, root);
-				return true;
-			} else {
-				return false;
+				business.getNode("owners").setValue(owners);
+				getIndex().addOwner(uuid, businessName);
 			}
+			fileManager.saveFile(FileType.BUSINESS_DATA, fileManager.getFile(FileType.BUSINESS_DATA));
+			return true;
 		}
 	}
 	
@@ -251,24 +205,18 @@ public class BusinessManager {
 	public boolean removeOwner(String businessName, String uuid) {
 		if(EconomyLite.access.sqlEnabled) {
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return false;
 			return mySQL.setOwner(ChangeAction.REMOVE, uuid, businessName);
 		} else {
-			//Load and get the business file
-			fileManager.loadFile(FileType.BUSINESS_DATA);
-			ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-			//Check if business exists
-			if(businessExists(businessName)) {
-				ConfigurationNode business = getBusiness(businessName);
-				if(business==null) return false;
+			ConfigurationNode business = getBusiness(businessName);
+			if(business==null) return false;
+			synchronized(business) {
 				ArrayList<String> owners = getStringListValues(business.getNode("owners"));
 				owners.remove(uuid);
-				root.getNode(business.getKey()).getNode("owners").setValue(owners);
-				fileManager.saveFile(FileType.BUSINESS_DATA, root);
-				return true;
-			} else {
-				return false;
+				business.getNode("owners").setValue(owners);
+				if(!owners.contains(uuid)) getIndex().removeOwner(uuid, businessName);
 			}
+			fileManager.saveFile(FileType.BUSINESS_DATA, fileManager.getFile(FileType.BUSINESS_DATA));
+			return true;
 		}
 	}
 	
@@ -282,27 +230,32 @@ public class BusinessManager {
 	public boolean deleteBusiness(String businessName) {
 		if(EconomyLite.access.sqlEnabled) {
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return false;
-			return mySQL.deleteBusiness(businessName);
+			if(!mySQL.deleteBusiness(businessName)) return false;
 		} else {
-			//Load and get the business file
-			fileManager.loadFile(FileType.BUSINESS_DATA);
+			BusinessIndex index = getIndex();
 			ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-			//Check if business exists
-			if(businessExists(businessName)) {
-				ConfigurationNode business = getBusiness(businessName);
+			//Only one business can be created or deleted at a time
+			synchronized(index) {
+				ConfigurationNode business = index.get(businessName);
 				if(business==null) return false;
+				index.remove(businessName);
 				root.getNode(business.getKey()).setValue(null);
-				fileManager.saveFile(FileType.BUSINESS_DATA, root);
-				return true;
-			} else {
-				return false;
 			}
+			fileManager.saveFile(FileType.BUSINESS_DATA, root);
 		}
+		//A new business with the same name must be confirmed again
+		EconomyLite.getConfirmations().close(businessName);
+		//The EconomyService must not hand out the deleted account anymore
+		EconomyService service = EconomyLite.getService();
+		if(service instanceof LiteEconomyService) ((LiteEconomyService) service).forgetAccount(businessName);
+		return true;
 	}
 	
 	/**
-	 * Sets if a business needs confirmation or not
+	 * Sets if a business needs confirmation or not.
+	 * 
+	 * Confirmations are only kept in memory, once a business no longer needs confirmation
+	 * it needs it again after a minute.
 	 * @param businessName
 	 * 	Business to change confirmation of
 	 * @param needed
@@ -311,25 +264,35 @@ public class BusinessManager {
 	 * 	Boolean based on if the method was successful or not
 	 */
 	public boolean setConfirmationNeeded(String businessName, boolean needed) {
-		if(EconomyLite.access.sqlEnabled) {
-			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return false;
-			return mySQL.setConfirm(businessName, needed);
+		if(needed) {
+			EconomyLite.getConfirmations().close(businessName);
 		} else {
-			//Load and get the business file
-			fileManager.loadFile(FileType.BUSINESS_DATA);
-			ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-			//Check if business exists
-			if(businessExists(businessName)) {
-				ConfigurationNode business = getBusiness(businessName);
-				if(business==null) return false;
-				root.getNode(business.getKey()).getNode("confirmNeeded").setValue(needed);
-				fileManager.saveFile(FileType.BUSINESS_DATA, root);
-				return true;
-			} else {
-				return false;
+			EconomyLite.getConfirmations().open(businessName);
+		}
+		return true;
+	}
+	
+	/**
+	 * Makes every business need confirmation again.
+	 * 
+	 * Older versions saved a confirmNeeded flag with each business in the data file, those flags are
+	 * removed in a single pass and the file is saved once.
+	 * @return
+	 * 	Boolean based on if the method was successful or not
+	 */
+	public boolean resetAllConfirmations() {
+		EconomyLite.getConfirmations().clear();
+		if(EconomyLite.access.sqlEnabled) return true;
+		boolean changed = false;
+		for(ConfigurationNode business : getIndex().getAll()) {
+			synchronized(business) {
+				if(business.getNode("confirmNeeded").isVirtual()) continue;
+				business.removeChild("confirmNeeded");
+				changed = true;
 			}
 		}
+		if(changed) fileManager.saveFile(FileType.BUSINESS_DATA, fileManager.getFile(FileType.BUSINESS_DATA));
+		return true;
 	}
 	
 	/**
@@ -340,15 +303,7 @@ public class BusinessManager {
 	 * 	Boolean based on if the business needs confirmation or not
 	 */
 	public boolean confirmationNeeded(String businessName) {
-		if(EconomyLite.access.sqlEnabled) {
-			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return true;
-			return mySQL.needsConfirm(businessName);
-		} else {
-			ConfigurationNode business = getBusiness(businessName);
-			if(business==null) return true;
-			return business.getNode("confirmNeeded").getBoolean();
-		}
+		return !EconomyLite.getConfirmations().isOpen(businessName);
 	}
 	
 	/**
@@ -365,36 +320,27 @@ public class BusinessManager {
 	public boolean setInvited(String businessName, String uuid, boolean inviteStatus) {
 		if(EconomyLite.access.sqlEnabled) {
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return false;
 			if(inviteStatus){
 				return mySQL.setInvite(ChangeAction.ADD, uuid, businessName);
 			} else {
 				return mySQL.setInvite(ChangeAction.REMOVE, uuid, businessName);
 			}
 		}
-		//Load and get the business file
-		fileManager.loadFile(FileType.BUSINESS_DATA);
-		ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-		//Check if business exists
-		if(businessExists(businessName)) {
-			ConfigurationNode business = getBusiness(businessName);
-			if(business==null) return false;
-			ArrayList<String> invitedList = getStringListValues(business.getNode("invited"));
-			ArrayList<String> invited = new ArrayList<String>();
-			for(String invitee : invitedList) {
-				invited.add(invitee);
-			}
+		ConfigurationNode business = getBusiness(businessName);
+		if(business==null) return false;
+		synchronized(business) {
+			ArrayList<String> invited = getStringListValues(business.getNode("invited"));
 			if(inviteStatus) {
 				invited.add(uuid);
+				getIndex().addInvite(uuid, businessName);
 			} else {
 				invited.remove(uuid);
+				if(!invited.contains(uuid)) getIndex().removeInvite(uuid, businessName);
 			}
-			root.getNode(business.getKey()).getNode("invited").setValue(invited);
-			fileManager.saveFile(FileType.BUSINESS_DATA, root);
-			return true;
-		} else {
-			return false;
+			business.getNode("invited").setValue(invited);
 		}
+		fileManager.saveFile(FileType.BUSINESS_DATA, fileManager.getFile(FileType.BUSINESS_DATA));
+		return true;
 	}
 	
 	/**
@@ -409,22 +355,28 @@ public class BusinessManager {
 	public boolean isInvited(String businessName, String uuid) {
 		if(EconomyLite.access.sqlEnabled) {
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return false;
 			return mySQL.getInvited(businessName).contains(uuid);
 		} else {
-			//Check if business exists
-			if(businessExists(businessName)) {
-				ConfigurationNode business = getBusiness(businessName);
-				if(business==null) return false;
-				ArrayList<String> invited = getStringListValues(business.getNode("invited"));
-				if(invited.contains(uuid)) {
-					return true;
-				} else {
-					return false;
-				}
-			} else {
-				return false;
-			}
+			ConfigurationNode business = getBusiness(businessName);
+			if(business==null) return false;
+			ArrayList<String> invited = getStringListValues(business.getNode("invited"));
+			return invited.contains(uuid);
+		}
+	}
+	
+	/**
+	 * Gets every business a player has been invited to
+	 * @param uuid
+	 * 	UUID of the player to check for
+	 * @return
+	 * 	An String ArrayList which contains all of the business names the player is invited to
+	 */
+	public ArrayList<String> getInvites(String uuid) {
+		if(EconomyLite.access.sqlEnabled) {
+			MySQLManager mySQL = EconomyLite.getMySQL();
+			return mySQL.getInvites(uuid);
+		} else {
+			return getIndex().getInvites(uuid);
 		}
 	}
 	
@@ -436,23 +388,17 @@ public class BusinessManager {
 	 * 	ConfigurationNode of the business, null if not found or an error occured
 	 */
 	private ConfigurationNode getBusiness(String businessName) {
-		if(businessExists(businessName)) {
-			//Load and get the business file
+		return getIndex().get(businessName);
+	}
+	
+	//Gets the business index, building it from the resident business file the first time
+	private BusinessIndex getIndex() {
+		BusinessIndex index = EconomyLite.getBusinessIndex();
+		if(!index.isBuilt()) {
 			fileManager.loadFile(FileType.BUSINESS_DATA);
-			ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-			//Loop through the children and find the business
-			for(ConfigurationNode business : root.getChildrenMap().values()) {
-				Object raw = business.getKey();
-				if(raw instanceof String) {
-					if(((String) raw).equalsIgnoreCase(businessName)) {
-						return business;
-					}
-				}
-			}
-			return null;
-		} else {
-			return null;
+			index.build(fileManager.getFile(FileType.BUSINESS_DATA));
 		}
+		return index;
 	}
 	
 	/**
@@ -465,18 +411,13 @@ public class BusinessManager {
 	public String getCorrectBusinessName(String businessName) {
 		if(EconomyLite.access.sqlEnabled) {
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.businessExists(businessName)) return "";
 			return mySQL.getCapitalizedBusinessName(businessName);
 		} else {
-			if(businessExists(businessName)) {
-				ConfigurationNode business = getBusiness(businessName);
-				if(business==null) return "";
-				Object raw = business.getKey();
-				if(raw instanceof String) {
-					return (String) raw;
-				} else {
-					return "";
-				}
+			ConfigurationNode business = getBusiness(businessName);
+			if(business==null) return "";
+			Object raw = business.getKey();
+			if(raw instanceof String) {
+				return (String) raw;
 			} else {
 				return "";
 			}
@@ -495,21 +436,7 @@ public class BusinessManager {
 			MySQLManager mySQL = EconomyLite.getMySQL();
 			return mySQL.getBusinesses(owner);
 		} else {
-			//Load and get the business file
-			fileManager.loadFile(FileType.BUSINESS_DATA);
-			ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
-			ArrayList<String> businesses = new ArrayList<String>();
-			//Loop through the children and find the business
-			for(ConfigurationNode business : root.getChildrenMap().values()) {
-				Object raw = business.getKey();
-				if(raw instanceof String) {
-					String businessName = (String) raw;
-					if(ownerExists(businessName,owner)) {
-						businesses.add(businessName);
-					}
-				}
-			}
-			return businesses;
+			return getIndex().getBusinesses(owner);
 		}
 	}
 	
@@ -522,8 +449,8 @@ public class BusinessManager {
 	 * @return
 	 * 	If the method failed or was successful
 	 */
-	public boolean addCurrency(String id, int amount) {
-		return setBusinessBalance(id, getBusinessBalance(id) + amount);
+	public boolean addCurrency(String id, long amount) {
+		return changeBalance(id, amount);
 	}
 	
 	/**
@@ -535,8 +462,44 @@ public class BusinessManager {
 	 * @return
 	 * 	If the method failed or was successful
 	 */
-	public boolean removeCurrency(String id, int amount) {
-		return setBusinessBalance(id, getBusinessBalance(id) - amount);
+	public boolean removeCurrency(String id, long amount) {
+		return changeBalance(id, -amount);
+	}
+	
+	//Atomically adds an amount to a business's balance, the balance must stay in-between 0 and the highest balance
+	private boolean changeBalance(String businessName, long amount) {
+		if(EconomyLite.access.sqlEnabled) {
+			MySQLManager mySQL = EconomyLite.getMySQL();
+			return mySQL.addBusinessBalance(businessName, amount, FixedPoint.getMaxBalance());
+		} else {
+			ConfigurationNode business = getBusiness(businessName);
+			if(business==null) return false;
+			//Only one change to this business at a time
+			synchronized(business) {
+				if(!addToBalance(business, amount)) return false;
+			}
+			fileManager.saveFile(FileType.BUSINESS_DATA, fileManager.getFile(FileType.BUSINESS_DATA));
+			return true;
+		}
+	}
+	
+	//Changes the balance of a resident business, the caller must hold the business node's lock
+	boolean addToBalance(ConfigurationNode business, long amount) {
+		long balance;
+		try {
+			balance = Long.parseLong(business.getNode("balance").getString());
+		} catch(NumberFormatException e) {
+			return false;
+		}
+		long newBalance = FixedPoint.add(balance, amount);
+		if(newBalance<0) return false;
+		business.getNode("balance").setValue(newBalance);
+		return true;
+	}
+	
+	//Gets the resident node of a business, which is also used as its lock
+	ConfigurationNode getBusinessNode(String businessName) {
+		return getBusiness(businessName);
 	}
 	
 	/**
@@ -549,23 +512,15 @@ public class BusinessManager {
 			MySQLManager mySQL = EconomyLite.getMySQL();
 			return mySQL.getAllBusinesses();
 		} else {
-			//Load and get the business file
-			fileManager.loadFile(FileType.BUSINESS_DATA);
-			ConfigurationNode root = fileManager.getFile(FileType.BUSINESS_DATA);
 			ArrayList<String> businesses = new ArrayList<String>();
-			//Loop through the children and find the business
-			for(ConfigurationNode business : root.getChildrenMap().values()) {
-				Object raw = business.getKey();
-				if(raw instanceof String) {
-					String businessName = (String) raw;
-					businesses.add(businessName);
-				}
+			for(ConfigurationNode business : getIndex().getAll()) {
+				businesses.add(business.getKey().toString());
 			}
 			return businesses;
 		}
 	}
 	
-	private ArrayList<String> getStringListValues(ConfigurationNode node) {
+	static ArrayList<String> getStringListValues(ConfigurationNode node) {
 		Object rawList = node.getValue();
 		ArrayList<String> toReturn = new ArrayList<String>();
 		
@@ -0,0 +1,116 @@
+package me.Flibio.EconomyLite.Utils;
+
+import me.Flibio.EconomyLite.EconomyLite;
+
+import org.spongepowered.api.scheduler.Task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+public class ConfirmationWheel {
+
+	//Length of one slot of the wheel
+	private static final long TICK_MILLIS = 1000;
+
+	private ArrayList<HashSet<String>> slots = new ArrayList<HashSet<String>>();
+	//Business -> slot in which its confirmation expires
+	private HashMap<String, Integer> pending = new HashMap<String, Integer>();
+	private int timeoutTicks;
+	private int cursor = 0;
+	private Task tickTask;
+
+	/**
+	 * Keeps track of businesses which are waiting for their deletion to be confirmed.
+	 *
+	 * Confirmations only live in memory, they are placed in a slot of the wheel and a single
+	 * scheduler task expires the whole slot at once when the wheel reaches it.
+	 * @param timeoutSeconds
+	 * 	How long a confirmation stays valid
+	 */
+	public ConfirmationWheel(int timeoutSeconds) {
+		this.timeoutTicks = Math.max(1, timeoutSeconds);
+		//One extra slot so a new confirmation is never placed in the slot being expired
+		for(int i = 0; i <= timeoutTicks; i++) {
+			slots.add(new HashSet<String>());
+		}
+	}
+
+	/**
+	 * Starts turning the wheel
+	 */
+	public void start() {
+		tickTask = EconomyLite.access.game.getScheduler().createTaskBuilder().execute(() -> {
+			tick();
+		}).async().interval(TICK_MILLIS, TimeUnit.MILLISECONDS).submit(EconomyLite.access);
+	}
+
+	/**
+	 * Stops turning the wheel, pending confirmations no longer expire
+	 */
+	public void stop() {
+		if(tickTask!=null) tickTask.cancel();
+	}
+
+	/**
+	 * Starts waiting for a business deletion to be confirmed, restarting the timeout if it is already waiting
+	 * @param businessName
+	 * 	Name of the business
+	 */
+	public synchronized void open(String businessName) {
+		String key = toKey(businessName);
+		Integer slot = pending.get(key);
+		if(slot!=null) slots.get(slot).remove(key);
+		int expiresIn = (cursor+timeoutTicks)%slots.size();
+		slots.get(expiresIn).add(key);
+		pending.put(key, expiresIn);
+	}
+
+	/**
+	 * Stops waiting for a business deletion to be confirmed
+	 * @param businessName
+	 * 	Name of the business
+	 */
+	public synchronized void close(String businessName) {
+		String key = toKey(businessName);
+		Integer slot = pending.remove(key);
+		if(slot!=null) slots.get(slot).remove(key);
+	}
+
+	/**
+	 * Checks if a business deletion is waiting to be confirmed
+	 * @param businessName
+	 * 	Name of the business
+	 * @return
+	 * 	If the business is waiting for confirmation
+	 */
+	public synchronized boolean isOpen(String businessName) {
+		return pending.containsKey(toKey(businessName));
+	}
+
+	/**
+	 * Forgets every pending confirmation at once
+	 */
+	public synchronized void clear() {
+		pending.clear();
+		for(HashSet<String> slot : slots) {
+			slot.clear();
+		}
+	}
+
+	//Turns the wheel one slot, expiring the confirmations in it
+	synchronized void tick() {
+		cursor = (cursor+1)%slots.size();
+		HashSet<String> expired = slots.get(cursor);
+		for(String key : expired) {
+			pending.remove(key);
+		}
+		expired.clear();
+	}
+
+	//Business names are not case sensitive
+	private String toKey(String businessName) {
+		return BusinessIndex.normalize(businessName);
+	}
+}
@@ -0,0 +1,186 @@
+package me.Flibio.EconomyLite.Utils;
+
+import me.Flibio.EconomyLite.EconomyLite;
+
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+public class ConnectionPool {
+
+	//How long a borrower will wait for a free connection
+	private static final long BORROW_TIMEOUT_SECONDS = 10;
+	//Idle connections older than this are validated before being handed out
+	private static final long VALIDATE_AFTER_MILLIS = 5000;
+
+	private DataSource dataSource;
+	private int minSize;
+	private int maxSize;
+	private long idleTimeoutMillis;
+	private String validationQuery;
+
+	private LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<IdleConnection>();
+	private Semaphore permits;
+	private volatile boolean closed = false;
+
+	private Logger logger = EconomyLite.access.logger;
+
+	/**
+	 * A bounded pool of JDBC connections
+	 * @param dataSource
+	 * 	Where new connections will be opened from
+	 * @param minSize
+	 * 	Number of idle connections that will always be kept open
+	 * @param maxSize
+	 * 	Maximum number of connections that can be borrowed at once
+	 * @param idleTimeoutMillis
+	 * 	How long a connection can sit idle before it is closed
+	 * @param validationQuery
+	 * 	Query used to check a connection is still alive(blank to use the driver's check)
+	 */
+	public ConnectionPool(DataSource dataSource, int minSize, int maxSize, long idleTimeoutMillis, String validationQuery) {
+		this.dataSource = dataSource;
+		this.maxSize = Math.max(1, maxSize);
+		this.minSize = Math.max(0, Math.min(minSize, this.maxSize));
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.validationQuery = validationQuery;
+		this.permits = new Semaphore(this.maxSize, true);
+
+		//Open the minimum amount of connections
+		for(int i = 0; i < this.minSize; i++) {
+			PooledConnection con = openConnection();
+			if(con==null) break;
+			idle.offerFirst(new IdleConnection(con));
+		}
+	}
+
+	/**
+	 * Borrows a connection from the pool, closing it gives it back
+	 * @return
+	 * 	A healthy connection, null if one could not be obtained
+	 */
+	public PooledConnection getConnection() {
+		if(closed) return null;
+		try {
+			if(!permits.tryAcquire(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				logger.error("Timed out waiting for a MySQL connection...");
+				return null;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		//Reuse the most recently used connection if it is healthy
+		IdleConnection entry;
+		while((entry = idle.pollFirst())!=null) {
+			if(System.currentTimeMillis() - entry.lastUsed < VALIDATE_AFTER_MILLIS || isValid(entry.connection.getConnection())) {
+				return entry.connection;
+			}
+			closeQuietly(entry.connection);
+		}
+		PooledConnection con = openConnection();
+		if(con==null) permits.release();
+		return con;
+	}
+
+	/**
+	 * Gives a borrowed connection back to the pool
+	 * @param con
+	 * 	The connection to give back
+	 */
+	public void release(PooledConnection con) {
+		if(con==null) return;
+		try {
+			if(closed || idle.size() >= maxSize || con.getConnection().isClosed()) {
+				closeQuietly(con);
+			} else {
+				idle.offerFirst(new IdleConnection(con));
+			}
+		} catch (SQLException e) {
+			closeQuietly(con);
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Closes connections which have been idle for too long, keeping the minimum pool size open
+	 */
+	public void evictIdle() {
+		long now = System.currentTimeMillis();
+		Iterator<IdleConnection> iterator = idle.descendingIterator();
+		while(iterator.hasNext() && idle.size() > minSize) {
+			IdleConnection entry = iterator.next();
+			if(now - entry.lastUsed > idleTimeoutMillis && idle.remove(entry)) {
+				closeQuietly(entry.connection);
+			}
+		}
+	}
+
+	/**
+	 * Closes every idle connection and stops handing out new ones
+	 */
+	public void close() {
+		closed = true;
+		IdleConnection entry;
+		while((entry = idle.pollFirst())!=null) {
+			closeQuietly(entry.connection);
+		}
+	}
+
+	private PooledConnection openConnection() {
+		if(dataSource==null) return null;
+		try {
+			return new PooledConnection(dataSource.getConnection(), this);
+		} catch (SQLException e) {
+			logger.error("Error opening MySQL connection...");
+			logger.error("Invalid credentials, hostname, database?");
+			logger.error(e.getMessage());
+			return null;
+		}
+	}
+
+	private boolean isValid(Connection con) {
+		try {
+			if(con.isClosed()) return false;
+			if(validationQuery==null||validationQuery.trim().isEmpty()) {
+				return con.isValid((int) BORROW_TIMEOUT_SECONDS);
+			}
+			try(Statement statement = con.createStatement()) {
+				statement.execute(validationQuery);
+			}
+			return true;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private void closeQuietly(PooledConnection con) {
+		con.closeStatements();
+		try {
+			con.getConnection().close();
+		} catch (SQLException e) {
+			logger.error("Error closing MySQL connection...");
+			logger.error(e.getMessage());
+		}
+	}
+
+	private static class IdleConnection {
+
+		private PooledConnection connection;
+		private long lastUsed;
+
+		private IdleConnection(PooledConnection connection) {
+			this.connection = connection;
+			this.lastUsed = System.currentTimeMillis();
+		}
+	}
+}
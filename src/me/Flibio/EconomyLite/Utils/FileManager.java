@@ -2,6 +2,11 @@ package me.Flibio.EconomyLite.Utils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import me.Flibio.EconomyLite.EconomyLite;
 import ninja.leaping.configurate.ConfigurationNode;
@@ -22,10 +27,21 @@ public class FileManager {
 		BUSINESS_DATA
 	}
 
+	//How long changes to a data file are collected before it is written to disk
+	private static final long FLUSH_DELAY_MILLIS = 1000;
+	
+	//Data files are loaded once and kept in memory, shared by every FileManager
+	private static volatile ConfigurationNode businessRoot;
+	private static volatile ConfigurationNode dataRoot;
+	private static EnumMap<FileType, AtomicBoolean> pendingFlushes = new EnumMap<FileType, AtomicBoolean>(FileType.class);
+	
+	static {
+		pendingFlushes.put(FileType.DATA, new AtomicBoolean(false));
+		pendingFlushes.put(FileType.BUSINESS_DATA, new AtomicBoolean(false));
+	}
+
 	private Logger logger;
 	private ConfigurationNode configRoot;
-	private ConfigurationNode businessRoot;
-	private ConfigurationNode dataRoot;
 	
 	public FileManager() {
 		this.logger = EconomyLite.access.logger;
@@ -94,20 +110,18 @@ public class FileManager {
 	}
 	
 	public void loadFile(FileType file) {
-		String fileName = "";
-		switch(file) {
-			case CONFIGURATION:
-				fileName = "config.conf";
-				break;
-			
-			case DATA:
-				fileName = "data.conf";
-				break;
-				
-			case BUSINESS_DATA:
-				fileName = "businesses.conf";
-				break;
+		if(file.equals(FileType.CONFIGURATION)) {
+			readFile(file);
+		} else if(getFile(file)==null) {
+			//Data files stay resident once they are loaded
+			synchronized(FileManager.class) {
+				if(getFile(file)==null) readFile(file);
+			}
 		}
+	}
+	
+	private void readFile(FileType file) {
+		String fileName = getFileName(file);
 		
 		ConfigurationLoader<?> manager = HoconConfigurationLoader.builder().setFile(new File("config/EconomyLite/"+fileName)).build();
 		ConfigurationNode root;
@@ -156,28 +170,103 @@ public class FileManager {
 	}
 	
 	public void saveFile(FileType file, ConfigurationNode root) {
-		String fileName = "";
+		if(file.equals(FileType.CONFIGURATION)) {
+			writeFile(file, root);
+			return;
+		}
+		//Keep the changes in memory and write them to disk shortly
 		switch(file) {
-			case CONFIGURATION:
-				fileName = "config.conf";
-				break;
-			
 			case DATA:
-				fileName = "data.conf";
+				dataRoot = root;
 				break;
 				
-			case BUSINESS_DATA:
-				fileName = "businesses.conf";
+			default:
+				businessRoot = root;
 				break;
 		}
+		AtomicBoolean pending = pendingFlushes.get(file);
+		if(pending.compareAndSet(false, true)) {
+			EconomyLite.access.game.getScheduler().createTaskBuilder().execute(() -> {
+				if(pending.getAndSet(false)) writeFile(file, getFile(file));
+			}).async().delay(FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS).submit(EconomyLite.access);
+		}
+	}
+	
+	/**
+	 * Immediately writes the resident copy of a data file, replacing the old file in one step
+	 * @param file
+	 * 	The data file to write
+	 * @return
+	 * 	If the file was written successfully
+	 */
+	public boolean saveFileNow(FileType file) {
+		ConfigurationNode root = getFile(file);
+		if(root==null) return false;
+		String fileName = getFileName(file);
+		File target = new File("config/EconomyLite/"+fileName);
+		File temp = new File("config/EconomyLite/"+fileName+".tmp");
+		ConfigurationLoader<?> manager = HoconConfigurationLoader.builder().setFile(temp).build();
+		
+		synchronized(pendingFlushes) {
+			try {
+				manager.save(root);
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				return true;
+			} catch (IOException e) {
+				logger.error("Error saving "+fileName+"!");
+				logger.error(e.getMessage());
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Gets the lock held while a data file is written, hold it while changing a resident data file
+	 * so it is never saved half changed
+	 * @return
+	 * 	The save lock
+	 */
+	public Object getSaveLock() {
+		return pendingFlushes;
+	}
+	
+	/**
+	 * Writes any data file changes which haven't been saved yet to disk
+	 */
+	public void flush() {
+		for(FileType file : pendingFlushes.keySet()) {
+			if(pendingFlushes.get(file).getAndSet(false)) writeFile(file, getFile(file));
+		}
+	}
+	
+	private void writeFile(FileType file, ConfigurationNode root) {
+		String fileName = getFileName(file);
 		ConfigurationLoader<?> manager = HoconConfigurationLoader.builder().setFile(new File("config/EconomyLite/"+fileName)).build();
 		
-		try {
-			manager.save(root);
-		} catch (IOException e) {
-			logger.error("Error saving "+fileName+"!");
-			logger.error(e.getMessage());
+		synchronized(pendingFlushes) {
+			try {
+				manager.save(root);
+			} catch (IOException e) {
+				logger.error("Error saving "+fileName+"!");
+				logger.error(e.getMessage());
+			}
+		}
+	}
+	
+	private String getFileName(FileType file) {
+		switch(file) {
+			case CONFIGURATION:
+				return "config.conf";
+			
+			case DATA:
+				return "data.conf";
+				
+			case BUSINESS_DATA:
+				return "businesses.conf";
+				
+			default:
+				return "";
 		}
 	}
 	
-}
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package me.Flibio.EconomyLite.Utils;
+
+import java.math.BigDecimal;
+
+public class FixedPoint {
+
+	//Largest number of fraction digits that still leaves room for big balances
+	private static final int MAX_FRACTION_DIGITS = 8;
+
+	private static volatile int fractionDigits = 0;
+	private static volatile long unit = 1;
+	private static volatile long maxBalance = 1000000;
+
+	private FixedPoint() {
+
+	}
+
+	/**
+	 * Sets how balances are stored, every balance and amount is a long counting the smallest unit of currency.
+	 *
+	 * Balances which were already saved with other fraction digits are converted by StoredScale.
+	 * @param digits
+	 * 	Number of fraction digits the currency has
+	 * @param maxWholeBalance
+	 * 	Highest balance an account may have, in whole units of currency
+	 */
+	public static void configure(int digits, long maxWholeBalance) {
+		int clampedDigits = Math.max(0, Math.min(MAX_FRACTION_DIGITS, digits));
+		long newUnit = 1;
+		for(int i = 0; i < clampedDigits; i++) {
+			newUnit *= 10;
+		}
+		long newMax;
+		try {
+			newMax = Math.multiplyExact(Math.max(0, maxWholeBalance), newUnit);
+		} catch(ArithmeticException e) {
+			newMax = Long.MAX_VALUE;
+		}
+		fractionDigits = clampedDigits;
+		unit = newUnit;
+		maxBalance = newMax;
+	}
+
+	/**
+	 * Gets the number of fraction digits the currency has
+	 * @return
+	 * 	The number of fraction digits
+	 */
+	public static int getFractionDigits() {
+		return fractionDigits;
+	}
+
+	/**
+	 * Gets what a balance stored with fewer fraction digits must be multiplied by to use the configured ones
+	 * @param storedDigits
+	 * 	Number of fraction digits the balance was stored with
+	 * @return
+	 * 	The factor to multiply the balance by
+	 */
+	public static long getScaleFactor(int storedDigits) {
+		long factor = 1;
+		for(int i = storedDigits; i < fractionDigits; i++) {
+			factor *= 10;
+		}
+		return factor;
+	}
+
+	/**
+	 * Gets the highest balance an account may have
+	 * @return
+	 * 	The highest balance, in the smallest unit of currency
+	 */
+	public static long getMaxBalance() {
+		return maxBalance;
+	}
+
+	/**
+	 * Checks if a balance can be stored
+	 * @param balance
+	 * 	The balance, in the smallest unit of currency
+	 * @return
+	 * 	If the balance is in-between 0 and the highest balance
+	 */
+	public static boolean inRange(long balance) {
+		return balance>=0&&balance<=maxBalance;
+	}
+
+	/**
+	 * Adds an amount to a balance, checking for overflow
+	 * @param balance
+	 * 	The current balance
+	 * @param amount
+	 * 	Amount to add(negative to remove)
+	 * @return
+	 * 	The new balance(-1 if it would overflow or be out of range)
+	 */
+	public static long add(long balance, long amount) {
+		long updated;
+		try {
+			updated = Math.addExact(balance, amount);
+		} catch(ArithmeticException e) {
+			return -1;
+		}
+		return inRange(updated) ? updated : -1;
+	}
+
+	/**
+	 * Converts whole units of currency, as typed in commands, into the smallest unit
+	 * @param whole
+	 * 	The amount in whole units
+	 * @return
+	 * 	The amount in the smallest unit
+	 */
+	public static long fromWhole(int whole) {
+		//An int times at most 10^8 always fits in a long
+		return whole * unit;
+	}
+
+	/**
+	 * Converts an amount into whole units of currency, dropping any fraction
+	 * @param amount
+	 * 	The amount in the smallest unit
+	 * @return
+	 * 	The amount in whole units
+	 */
+	public static long toWhole(long amount) {
+		return amount / unit;
+	}
+
+	/**
+	 * Checks if an amount is exactly one unit of currency, to choose the singular label
+	 * @param amount
+	 * 	The amount in the smallest unit
+	 * @return
+	 * 	If the amount is exactly one
+	 */
+	public static boolean isOne(long amount) {
+		return amount==unit;
+	}
+
+	/**
+	 * Formats an amount for display
+	 * @param amount
+	 * 	The amount in the smallest unit
+	 * @return
+	 * 	The amount with its fraction digits, for example 12.50
+	 */
+	public static String format(long amount) {
+		if(fractionDigits==0) return Long.toString(amount);
+		return BigDecimal.valueOf(amount, fractionDigits).toPlainString();
+	}
+}
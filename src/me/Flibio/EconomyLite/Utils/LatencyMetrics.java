@@ -0,0 +1,75 @@
+package me.Flibio.EconomyLite.Utils;
+
+import me.Flibio.EconomyLite.EconomyLite;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+public class LatencyMetrics {
+
+	//Number of samples between summaries in the log
+	private static final int REPORT_EVERY = 1000;
+
+	private String name;
+	private AtomicLong count = new AtomicLong();
+	private AtomicLong totalNanos = new AtomicLong();
+	private LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Keeps track of how long an operation takes
+	 * @param name
+	 * 	Name of the operation, used in the log
+	 */
+	public LatencyMetrics(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Records how long the operation took once
+	 * @param startNanos
+	 * 	Value of System.nanoTime() when the operation started
+	 */
+	public void record(long startNanos) {
+		long nanos = System.nanoTime() - startNanos;
+		totalNanos.addAndGet(nanos);
+		maxNanos.accumulate(nanos);
+		if(count.incrementAndGet() % REPORT_EVERY == 0) {
+			EconomyLite.access.logger.debug(toString());
+		}
+	}
+
+	/**
+	 * Gets how many times the operation was recorded
+	 * @return
+	 * 	Number of samples
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Gets the average time the operation took
+	 * @return
+	 * 	Average time in milliseconds
+	 */
+	public double getAverageMillis() {
+		long samples = count.get();
+		if(samples==0) return 0;
+		return totalNanos.get() / (double) samples / 1000000;
+	}
+
+	/**
+	 * Gets the longest time the operation took
+	 * @return
+	 * 	Longest time in milliseconds
+	 */
+	public double getMaxMillis() {
+		return maxNanos.get() / 1000000d;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d samples, %.3fms average, %.3fms max", name, getCount(), getAverageMillis(), getMaxMillis());
+	}
+
+}
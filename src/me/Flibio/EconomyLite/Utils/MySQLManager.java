@@ -1,16 +1,19 @@
 package me.Flibio.EconomyLite.Utils;
 
 import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.Utils.TransferEngine.AccountType;
 
 import org.slf4j.Logger;
+import org.spongepowered.api.service.economy.transaction.ResultType;
 import org.spongepowered.api.service.sql.SqlService;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
@@ -26,14 +29,15 @@ public class MySQLManager {
 	private String username;
 	private String password;
 	
-	private Connection con;
-	private Statement statement;
+	private ConnectionPool pool;
 	private SqlService sqlService;
+	//If the tables are at the current schema version
+	private boolean ready = false;
 	
 	private Logger logger = EconomyLite.access.logger;
 	
-	public MySQLManager(String hostname, String port, String database,
-			String username, String password, SqlService sql) {
+	public MySQLManager(String hostname, String port, String database, String username, String password,
+			int poolMinSize, int poolMaxSize, long idleTimeoutMillis, String validationQuery, SqlService sql) {
 		//Set the connection variables
 		this.hostname = hostname;
 		this.port = port;
@@ -44,31 +48,35 @@ public class MySQLManager {
 		//Set the sql service variable
 		sqlService = sql;
 		
-		//Open a connection
-		con = openConnection();
-		createStatement();
-		if(statement!=null){
-			try {
-				PreparedStatement ps = con.prepareStatement("CREATE TABLE IF NOT EXISTS EconomyLite(uuid VARCHAR(100), currency INT(100))");
-				ps.executeUpdate();
-				PreparedStatement ps2 = con.prepareStatement("CREATE TABLE IF NOT EXISTS EconomyLiteBusinesses(name VARCHAR(1000),balance INT(100),needConfirm VARCHAR(5))");
-				ps2.executeUpdate();
-				PreparedStatement ps3 = con.prepareStatement("CREATE TABLE IF NOT EXISTS EconomyLiteBusinessOwners(uuid VARCHAR(100), business VARCHAR(1000))");
-				ps3.executeUpdate();
-				PreparedStatement ps4 = con.prepareStatement("CREATE TABLE IF NOT EXISTS EconomyLiteBusinessInvited(uuid VARCHAR(100), business VARCHAR(1000))");
-				ps4.executeUpdate();
-			} catch (SQLException e) {
-				logger.error("Error creating EconomyLite databases...");
-				logger.error(e.getMessage());
-			}
+		//Create the connection pool
+		pool = new ConnectionPool(openDataSource(), poolMinSize, poolMaxSize, idleTimeoutMillis, validationQuery);
+		//Close connections which have been idle for too long
+		EconomyLite.access.game.getScheduler().createTaskBuilder().execute(() -> {
+			pool.evictIdle();
+		}).async().interval(30, TimeUnit.SECONDS).submit(EconomyLite.access);
+		
+		//Create the tables, or upgrade them from an older version. This blocks startup on purpose, the
+		//queries below only understand the current tables, so no balance can be served until the upgrade is done
+		ready = new SchemaMigrator(pool).migrate();
+		if(!ready) {
+			logger.error("Error creating EconomyLite databases...");
 		}
-		closeConnection();
+	}
+	
+	/**
+	 * Checks if the tables were created or upgraded to the current version
+	 * @return
+	 * 	If the database can be used
+	 */
+	public boolean isReady() {
+		return ready;
 	}
 	//Generic--
-	private Connection openConnection() {
+	private DataSource openDataSource() {
 		try {
-			DataSource source = sqlService.getDataSource("jdbc:mysql://"+hostname+":"+port+"/"+database+"?user="+username+"&password="+password);
-			return source.getConnection();
+			//Statements are prepared on the server once per connection, the pooled connections keep them open for reuse
+			return sqlService.getDataSource("jdbc:mysql://"+hostname+":"+port+"/"+database+"?user="+username+"&password="+password
+					+"&useServerPrepStmts=true&cachePrepStmts=true");
 		} catch (SQLException e) {
 			logger.error("Error opening MySQL connection...");
 			logger.error("Invalid credentials, hostname, database?");
@@ -77,422 +85,593 @@ public class MySQLManager {
 		}
 	}
 	
-	private void createStatement() {
-		if(con == null) return;
-		try {
-			statement = con.createStatement();
-		} catch (SQLException e) {
-			logger.error("Error creating MySQL statement...");
-			logger.error(e.getMessage());
-		}
+	//UUIDs are stored as 16 bytes
+	private void setUUID(PreparedStatement ps, int index, String uuid) throws SQLException {
+		ps.setBytes(index, SchemaMigrator.toBytes(uuid));
 	}
 	
-	private void closeConnection(){
-		try {
-			con.close();
-		} catch (SQLException e) {
-			logger.error("Error closing MySQL connection...");
-			logger.error(e.getMessage());
+	private void setId(PreparedStatement ps, int index, AccountType type, String id) throws SQLException {
+		if(type.equals(AccountType.PLAYER)) {
+			setUUID(ps, index, id);
+		} else {
+			ps.setString(index, id);
 		}
 	}
 	
-	private void reconnect() {
-		closeConnection();
-		con = openConnection();
-		createStatement();
+	/**
+	 * Closes all of the pooled connections
+	 */
+	public void close() {
+		pool.close();
 	}
 	//Players--
 	public boolean playerExists(String uuid) {
-		reconnect();
-		ResultSet res;
-		try {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
 			PreparedStatement ps = con.prepareStatement("SELECT uuid FROM EconomyLite WHERE uuid = ?");
-			ps.setString(1, uuid);
-			res = ps.executeQuery();
-			if(!(res.next())) {
-				closeConnection();
-				return false;
-			} else {
-				closeConnection();
-				return true;
+			setUUID(ps, 1, uuid);
+			try(ResultSet res = ps.executeQuery()) {
+				if(!(res.next())) {
+					return false;
+				} else {
+					return true;
+				}
 			}
 		} catch (SQLException e) {
 			logger.error("Error checking if player exists...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return false;
 		}
 	}
 	
-	public int getBalance(String uuid) {
-		//Make sure the player exists
-		if(!playerExists(uuid)) {
-			return -1;
-		}
-		reconnect();
-		ResultSet res;
-		try {
+	public long getBalance(String uuid) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return -1;
 			PreparedStatement ps = con.prepareStatement("SELECT currency FROM EconomyLite WHERE uuid = ?");
-			ps.setString(1, uuid);
-			res = ps.executeQuery();
-			res.next();
-			closeConnection();
-			return res.getInt("currency");
+			setUUID(ps, 1, uuid);
+			try(ResultSet res = ps.executeQuery()) {
+				//No row means the player doesn't exist
+				if(!res.next()) return -1;
+				return res.getLong("currency");
+			}
 		} catch (SQLException e) {
 			logger.error("Error getting currency of player...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return -1;
 		}
 	}
 	
 	public boolean newPlayer(String uuid) {
-		//Make sure the player doesn't exist
-		if(playerExists(uuid)) {
-			return false;
-		}
-		reconnect();
-		try {
-			PreparedStatement ps = con.prepareStatement("INSERT INTO EconomyLite (`uuid`, `currency`) VALUES (?, '0');");
-			ps.setString(1, uuid);
-			ps.executeUpdate();
-			closeConnection();
-			return true;
+		return newPlayer(uuid, 0);
+	}
+	
+	public boolean newPlayer(String uuid, long balance) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
+			//Nothing is inserted if the player already exists
+			PreparedStatement ps = con.prepareStatement("INSERT IGNORE INTO EconomyLite (`uuid`, `currency`) VALUES (?, ?);");
+			setUUID(ps, 1, uuid);
+			ps.setLong(2, balance);
+			return ps.executeUpdate()>0;
 		} catch (SQLException e) {
 			logger.error("Error registering new player...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return false;
 		}
 	}
 	
-	public boolean setBalance(String uuid, int balance) {
-		//Make sure the player exists
-		if(!playerExists(uuid)) {
+	public boolean setBalance(String uuid, long balance) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
+			PreparedStatement ps = con.prepareStatement("UPDATE EconomyLite SET currency = ? WHERE uuid = ?");
+			ps.setLong(1, balance);
+			setUUID(ps, 2, uuid);
+			return ps.executeUpdate()>0;
+		} catch (SQLException e) {
+			logger.error("Error setting currency of player...");
+			logger.error(e.getMessage());
 			return false;
 		}
-		reconnect();
-		try {
-			PreparedStatement ps = con.prepareStatement("UPDATE EconomyLite SET currency = ? WHERE uuid = ?");
-			ps.setString(1, Integer.toString(balance));
-			ps.setString(2, uuid);
+	}
+	
+	public boolean upsertBalance(String uuid, long balance) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
+			//Registers the player if they don't exist yet
+			PreparedStatement ps = con.prepareStatement("INSERT INTO EconomyLite (`uuid`, `currency`) VALUES (?, ?) ON DUPLICATE KEY UPDATE currency = VALUES(currency)");
+			setUUID(ps, 1, uuid);
+			ps.setLong(2, balance);
 			ps.executeUpdate();
-			closeConnection();
 			return true;
 		} catch (SQLException e) {
 			logger.error("Error setting currency of player...");
 			logger.error(e.getMessage());
-			closeConnection();
+			return false;
+		}
+	}
+	
+	public boolean upsertBalances(Map<String, Long> balances) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
+			try {
+				con.setAutoCommit(false);
+				PreparedStatement ps = con.prepareStatement("INSERT INTO EconomyLite (`uuid`, `currency`) VALUES (?, ?) ON DUPLICATE KEY UPDATE currency = VALUES(currency)");
+				for(Map.Entry<String, Long> balance : balances.entrySet()) {
+					setUUID(ps, 1, balance.getKey());
+					ps.setLong(2, balance.getValue());
+					ps.addBatch();
+				}
+				//Every balance is written in one round trip
+				ps.executeBatch();
+				con.commit();
+				return true;
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
+			} finally {
+				con.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			logger.error("Error setting a batch of balances...");
+			logger.error(e.getMessage());
+			return false;
+		}
+	}
+	
+	public boolean addBalance(String uuid, long amount, long max) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
+			//Only changes the balance if the result is in range
+			PreparedStatement ps = con.prepareStatement("UPDATE EconomyLite SET currency = currency + ? WHERE uuid = ? AND currency + ? BETWEEN 0 AND ?");
+			ps.setLong(1, amount);
+			setUUID(ps, 2, uuid);
+			ps.setLong(3, amount);
+			ps.setLong(4, max);
+			return ps.executeUpdate()>0;
+		} catch (SQLException e) {
+			logger.error("Error changing currency of player...");
+			logger.error(e.getMessage());
 			return false;
 		}
 	}
 	//Businesses--
 	public boolean businessExists(String name) {
-		reconnect();
-		ResultSet res;
-		try {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
 			PreparedStatement ps = con.prepareStatement("SELECT name FROM EconomyLiteBusinesses WHERE name = ?");
 			ps.setString(1, name);
-			res = ps.executeQuery();
-			if(!(res.next())) {
-				closeConnection();
-				return false;
-			} else {
-				closeConnection();
-				return true;
+			try(ResultSet res = ps.executeQuery()) {
+				if(!(res.next())) {
+					return false;
+				} else {
+					return true;
+				}
 			}
 		} catch (SQLException e) {
 			logger.error("Error checking if business exists...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return false;
 		}
 	}
 	
-	public int getBusinessBalance(String name) {
-		//Make sure the business exists
-		if(!businessExists(name)) {
-			return -1;
-		}
-		reconnect();
-		ResultSet res;
-		try {
+	public long getBusinessBalance(String name) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return -1;
 			PreparedStatement ps = con.prepareStatement("SELECT balance FROM EconomyLiteBusinesses WHERE name = ?");
 			ps.setString(1, name);
-			res = ps.executeQuery();
-			res.next();
-			closeConnection();
-			return res.getInt("balance");
+			try(ResultSet res = ps.executeQuery()) {
+				//No row means the business doesn't exist
+				if(!res.next()) return -1;
+				return res.getLong("balance");
+			}
 		} catch (SQLException e) {
 			logger.error("Error getting balance of business...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return -1;
 		}
 	}
 	
 	public boolean newBusiness(String name) {
-		//Make sure the business doesn't exist
-		if(businessExists(name)) {
-			return false;
-		}
-		reconnect();
-		try {
-			PreparedStatement ps = con.prepareStatement("INSERT INTO EconomyLiteBusinesses (`name`, `balance`, `needConfirm`) VALUES (?, '0', 'true');");
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
+			//Nothing is inserted if the business already exists
+			PreparedStatement ps = con.prepareStatement("INSERT IGNORE INTO EconomyLiteBusinesses (`name`, `balance`) VALUES (?, 0);");
 			ps.setString(1, name);
-			ps.executeUpdate();
-			closeConnection();
-			return true;
+			return ps.executeUpdate()>0;
 		} catch (SQLException e) {
 			logger.error("Error registering new business...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return false;
 		}
 	}
 	
-	public boolean setBusinessBalance(String name, int balance) {
-		//Make sure the business exists
-		if(!businessExists(name)) {
-			return false;
-		}
-		reconnect();
-		try {
+	public boolean setBusinessBalance(String name, long balance) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
 			PreparedStatement ps = con.prepareStatement("UPDATE EconomyLiteBusinesses SET balance = ? WHERE name = ?");
-			ps.setString(1, Integer.toString(balance));
+			ps.setLong(1, balance);
 			ps.setString(2, name);
-			ps.executeUpdate();
-			closeConnection();
-			return true;
+			return ps.executeUpdate()>0;
 		} catch (SQLException e) {
 			logger.error("Error setting balance of business...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return false;
 		}
 	}
 	
-	public boolean deleteBusiness(String name) {
-		//Make sure the business exists
-		if(!businessExists(name)) {
+	public boolean addBusinessBalance(String name, long amount, long max) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
+			//Only changes the balance if the result is in range
+			PreparedStatement ps = con.prepareStatement("UPDATE EconomyLiteBusinesses SET balance = balance + ? WHERE name = ? AND balance + ? BETWEEN 0 AND ?");
+			ps.setLong(1, amount);
+			ps.setString(2, name);
+			ps.setLong(3, amount);
+			ps.setLong(4, max);
+			return ps.executeUpdate()>0;
+		} catch (SQLException e) {
+			logger.error("Error changing balance of business...");
+			logger.error(e.getMessage());
 			return false;
 		}
-		reconnect();
-		try {
-			PreparedStatement ps = con.prepareStatement("DELETE FROM EconomyLiteBusinesses WHERE name = ?");
-			ps.setString(1, name);
-			ps.executeUpdate();
-			PreparedStatement ps2 = con.prepareStatement("DELETE FROM EconomyLiteBusinessOwners WHERE business = ?");
-			ps2.setString(1, name);
-			ps2.executeUpdate();
-			PreparedStatement ps3 = con.prepareStatement("DELETE FROM EconomyLiteBusinessInvited WHERE business = ?");
-			ps3.setString(1, name);
-			ps3.executeUpdate();
-			closeConnection();
-			return true;
+	}
+	
+	//Meta--
+	/**
+	 * Checks if any player or business has a stored balance
+	 * @return
+	 * 	If there is at least one account(true if there was an error, so old balances are never skipped)
+	 */
+	public boolean hasAccounts() {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return true;
+			PreparedStatement ps = con.prepareStatement("SELECT EXISTS(SELECT 1 FROM EconomyLite) OR EXISTS(SELECT 1 FROM EconomyLiteBusinesses)");
+			try(ResultSet res = ps.executeQuery()) {
+				return !res.next()||res.getBoolean(1);
+			}
 		} catch (SQLException e) {
-			logger.error("Error deleting business...");
+			logger.error("Error checking for stored balances...");
 			logger.error(e.getMessage());
-			closeConnection();
-			return false;
+			return true;
 		}
 	}
 	
-	public String getCapitalizedBusinessName(String name) {
-		//Make sure the business exists
-		if(!businessExists(name)) {
-			return "";
+	/**
+	 * Gets the number of fraction digits the balances were stored with
+	 * @return
+	 * 	The fraction digits(-1 if they were never stored, -2 if there was an error)
+	 */
+	public int getFractionDigits() {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return -2;
+			PreparedStatement ps = con.prepareStatement("SELECT value FROM EconomyLiteMeta WHERE name = 'fractionDigits'");
+			try(ResultSet res = ps.executeQuery()) {
+				if(!res.next()) return -1;
+				return Integer.parseInt(res.getString("value"));
+			}
+		} catch (SQLException | NumberFormatException e) {
+			logger.error("Error getting the stored fraction digits...");
+			logger.error(e.getMessage());
+			return -2;
 		}
-		reconnect();
-		ResultSet res;
-		try {
-			PreparedStatement ps = con.prepareStatement("SELECT name FROM EconomyLiteBusinesses WHERE name = ?");
-			ps.setString(1, name);
-			res = ps.executeQuery();
-			res.next();
-			closeConnection();
-			return res.getString("name");
+	}
+	
+	/**
+	 * Stores the number of fraction digits, converting every balance in the same transaction
+	 * @param digits
+	 * 	The fraction digits the balances will be stored with
+	 * @param factor
+	 * 	What every balance is multiplied by(1 to leave the balances alone)
+	 * @return
+	 * 	If the method was successful or not
+	 */
+	public boolean setFractionDigits(int digits, long factor) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
+			try {
+				con.setAutoCommit(false);
+				if(factor!=1) {
+					//A balance which would no longer fit makes MySQL fail the whole conversion
+					PreparedStatement players = con.prepareStatement("UPDATE EconomyLite SET currency = currency * ?");
+					players.setLong(1, factor);
+					players.executeUpdate();
+					PreparedStatement businesses = con.prepareStatement("UPDATE EconomyLiteBusinesses SET balance = balance * ?");
+					businesses.setLong(1, factor);
+					businesses.executeUpdate();
+				}
+				PreparedStatement ps = con.prepareStatement("REPLACE INTO EconomyLiteMeta (name, value) VALUES ('fractionDigits', ?)");
+				ps.setString(1, Integer.toString(digits));
+				ps.executeUpdate();
+				con.commit();
+				return true;
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
+			} finally {
+				//Runs before the connection goes back to the pool
+				con.setAutoCommit(true);
+			}
 		} catch (SQLException e) {
-			logger.error("Error getting name of business...");
+			logger.error("Error storing the fraction digits...");
 			logger.error(e.getMessage());
-			closeConnection();
-			return "";
+			return false;
 		}
 	}
 	
-	public boolean needsConfirm(String business) {
-		if(!businessExists(business)) {
-			return true;
+	//Transfers--
+	public ResultType transfer(AccountType fromType, String from, AccountType toType, String to, long amount, long max) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return ResultType.FAILED;
+			try {
+				con.setAutoCommit(false);
+				//Change the rows in a fixed order so two transfers can't deadlock
+				boolean fromFirst = TransferEngine.orderKey(fromType, from).compareTo(TransferEngine.orderKey(toType, to))<=0;
+				boolean debited = true;
+				boolean credited = true;
+				if(fromFirst) {
+					debited = changeInTransaction(con, fromType, from, -amount, max);
+					if(debited) credited = changeInTransaction(con, toType, to, amount, max);
+				} else {
+					credited = changeInTransaction(con, toType, to, amount, max);
+					if(credited) debited = changeInTransaction(con, fromType, from, -amount, max);
+				}
+				if(!debited||!credited) {
+					//A row which doesn't exist is an error, not a balance limit
+					ResultType result;
+					if(!debited) {
+						result = accountExists(con, fromType, from) ? ResultType.ACCOUNT_NO_FUNDS : ResultType.FAILED;
+					} else {
+						result = accountExists(con, toType, to) ? ResultType.ACCOUNT_NO_SPACE : ResultType.FAILED;
+					}
+					con.rollback();
+					return result;
+				}
+				con.commit();
+				return ResultType.SUCCESS;
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
+			} finally {
+				//Runs before the connection goes back to the pool
+				con.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			logger.error("Error transferring currency...");
+			logger.error(e.getMessage());
+			return ResultType.FAILED;
 		}
-		reconnect();
-		ResultSet res;
-		try {
-			PreparedStatement ps = con.prepareStatement("SELECT needConfirm FROM EconomyLiteBusinesses WHERE name = ?");
-			ps.setString(1, business);
-			res = ps.executeQuery();
-			res.next();
-			closeConnection();
-			return res.getBoolean("needConfirm");
+	}
+	
+	public HashMap<String, ResultType> addBalances(AccountType type, Map<String, Long> deltas, long max) {
+		HashMap<String, ResultType> results = new HashMap<String, ResultType>();
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return null;
+			try {
+				con.setAutoCommit(false);
+				PreparedStatement ps;
+				if(type.equals(AccountType.PLAYER)) {
+					ps = con.prepareStatement("UPDATE EconomyLite SET currency = currency + ? WHERE uuid = ? AND currency + ? BETWEEN 0 AND ?");
+				} else {
+					ps = con.prepareStatement("UPDATE EconomyLiteBusinesses SET balance = balance + ? WHERE name = ? AND balance + ? BETWEEN 0 AND ?");
+				}
+				ArrayList<String> order = new ArrayList<String>();
+				for(Map.Entry<String, Long> delta : deltas.entrySet()) {
+					ps.setLong(1, delta.getValue());
+					setId(ps, 2, type, delta.getKey());
+					ps.setLong(3, delta.getValue());
+					ps.setLong(4, max);
+					ps.addBatch();
+					order.add(delta.getKey());
+				}
+				//Send every change in one round trip
+				int[] updated = ps.executeBatch();
+				for(int i = 0; i < order.size(); i++) {
+					String id = order.get(i);
+					if(updated[i]>0) {
+						results.put(id, ResultType.SUCCESS);
+					} else if(!accountExists(con, type, id)) {
+						//Only the rare rows which weren't changed are looked up again
+						results.put(id, ResultType.FAILED);
+					} else {
+						results.put(id, deltas.get(id)<0 ? ResultType.ACCOUNT_NO_FUNDS : ResultType.ACCOUNT_NO_SPACE);
+					}
+				}
+				con.commit();
+				return results;
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
+			} finally {
+				con.setAutoCommit(true);
+			}
 		} catch (SQLException e) {
-			logger.error("Error getting need confirm of business...");
+			logger.error("Error changing a batch of balances...");
 			logger.error(e.getMessage());
-			closeConnection();
-			return true;
+			return null;
 		}
 	}
 	
-	public boolean setConfirm(String business, boolean needConfirm) {
-		//Make sure the business exists
-		if(!businessExists(business)) {
-			return false;
+	private boolean accountExists(PooledConnection con, AccountType type, String id) throws SQLException {
+		PreparedStatement ps;
+		if(type.equals(AccountType.PLAYER)) {
+			ps = con.prepareStatement("SELECT 1 FROM EconomyLite WHERE uuid = ?");
+		} else {
+			ps = con.prepareStatement("SELECT 1 FROM EconomyLiteBusinesses WHERE name = ?");
 		}
-		reconnect();
-		try {
-			PreparedStatement ps = con.prepareStatement("UPDATE EconomyLiteBusinesses SET needConfirm = ? WHERE name = ?");
-			ps.setString(1, Boolean.toString(needConfirm));
-			ps.setString(2, business);
-			ps.executeUpdate();
-			closeConnection();
-			return true;
+		setId(ps, 1, type, id);
+		try(ResultSet res = ps.executeQuery()) {
+			return res.next();
+		}
+	}
+	
+	private boolean changeInTransaction(PooledConnection con, AccountType type, String id, long amount, long max) throws SQLException {
+		PreparedStatement ps;
+		if(type.equals(AccountType.PLAYER)) {
+			ps = con.prepareStatement("UPDATE EconomyLite SET currency = currency + ? WHERE uuid = ? AND currency + ? BETWEEN 0 AND ?");
+		} else {
+			ps = con.prepareStatement("UPDATE EconomyLiteBusinesses SET balance = balance + ? WHERE name = ? AND balance + ? BETWEEN 0 AND ?");
+		}
+		ps.setLong(1, amount);
+		setId(ps, 2, type, id);
+		ps.setLong(3, amount);
+		ps.setLong(4, max);
+		return ps.executeUpdate()>0;
+	}
+	
+	public boolean deleteBusiness(String name) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return false;
+			PreparedStatement ps = con.prepareStatement("DELETE FROM EconomyLiteBusinesses WHERE name = ?");
+			ps.setString(1, name);
+			//Owners and invites are removed by the foreign keys
+			return ps.executeUpdate()>0;
 		} catch (SQLException e) {
-			logger.error("Error setting need confirm of business...");
+			logger.error("Error deleting business...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return false;
 		}
 	}
 	
+	public String getCapitalizedBusinessName(String name) {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return "";
+			PreparedStatement ps = con.prepareStatement("SELECT name FROM EconomyLiteBusinesses WHERE name = ?");
+			ps.setString(1, name);
+			try(ResultSet res = ps.executeQuery()) {
+				if(!res.next()) return "";
+				return res.getString("name");
+			}
+		} catch (SQLException e) {
+			logger.error("Error getting name of business...");
+			logger.error(e.getMessage());
+			return "";
+		}
+	}
+	
 	public ArrayList<String> getAllBusinesses() {
 		ArrayList<String> businesses = new ArrayList<String>();
-		reconnect();
-		ResultSet res;
-		try {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return businesses;
 			PreparedStatement ps = con.prepareStatement("SELECT name FROM EconomyLiteBusinesses");
-			res = ps.executeQuery();
-			while(res.next()) {
-				businesses.add(res.getString("name"));
+			try(ResultSet res = ps.executeQuery()) {
+				while(res.next()) {
+					businesses.add(res.getString("name"));
+				}
+				return businesses;
 			}
-			closeConnection();
-			return businesses;
 		} catch (SQLException e) {
 			logger.error("Error getting businesses...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return businesses;
 		}
 	}
 	
 	public ArrayList<String> getBusinesses(String owner) {
 		ArrayList<String> businesses = new ArrayList<String>();
-		reconnect();
-		ResultSet res;
-		try {
-			PreparedStatement ps = con.prepareStatement("SELECT name FROM EconomyLiteBusinesses");
-			res = ps.executeQuery();
-			while(res.next()) {
-				String name = res.getString("name");
-				if(getOwners(name).contains(owner)) {
-					businesses.add(name);
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return businesses;
+			//One indexed lookup instead of checking the owners of every business
+			PreparedStatement ps = con.prepareStatement("SELECT b.name FROM EconomyLiteBusinessOwners o JOIN EconomyLiteBusinesses b ON b.name = o.business WHERE o.uuid = ?");
+			setUUID(ps, 1, owner);
+			try(ResultSet res = ps.executeQuery()) {
+				while(res.next()) {
+					String name = res.getString("name");
+					if(!businesses.contains(name)) businesses.add(name);
 				}
+				return businesses;
 			}
-			closeConnection();
-			return businesses;
 		} catch (SQLException e) {
 			logger.error("Error getting businesses...");
 			logger.error(e.getMessage());
-			closeConnection();
+			return businesses;
+		}
+	}
+	
+	public ArrayList<String> getInvites(String uuid) {
+		ArrayList<String> businesses = new ArrayList<String>();
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return businesses;
+			PreparedStatement ps = con.prepareStatement("SELECT b.name FROM EconomyLiteBusinessInvited i JOIN EconomyLiteBusinesses b ON b.name = i.business WHERE i.uuid = ?");
+			setUUID(ps, 1, uuid);
+			try(ResultSet res = ps.executeQuery()) {
+				while(res.next()) {
+					String name = res.getString("name");
+					if(!businesses.contains(name)) businesses.add(name);
+				}
+				return businesses;
+			}
+		} catch (SQLException e) {
+			logger.error("Error getting invites...");
+			logger.error(e.getMessage());
 			return businesses;
 		}
 	}
 	
 	public ArrayList<String> getOwners(String business) {
 		ArrayList<String> owners = new ArrayList<String>();
-		if(!businessExists(business)) {
-			return owners;
-		}
-		reconnect();
-		ResultSet res;
-		try {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return owners;
 			PreparedStatement ps = con.prepareStatement("SELECT uuid FROM EconomyLiteBusinessOwners WHERE business = ?");
 			ps.setString(1, business);
-			res = ps.executeQuery();
-			while(res.next()) {
-				owners.add(res.getString("uuid"));
+			try(ResultSet res = ps.executeQuery()) {
+				while(res.next()) {
+					owners.add(SchemaMigrator.fromBytes(res.getBytes("uuid")));
+				}
+				return owners;
 			}
-			closeConnection();
-			return owners;
 		} catch (SQLException e) {
 			logger.error("Error getting owners...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return owners;
 		}
 	}
 	
 	public ArrayList<String> getInvited(String business) {
 		ArrayList<String> invited = new ArrayList<String>();
-		if(!businessExists(business)) {
-			return invited;
-		}
-		reconnect();
-		ResultSet res;
-		try {
+		try(PooledConnection con = pool.getConnection()) {
+			if(con==null) return invited;
 			PreparedStatement ps = con.prepareStatement("SELECT uuid FROM EconomyLiteBusinessInvited WHERE business = ?");
 			ps.setString(1, business);
-			res = ps.executeQuery();
-			while(res.next()) {
-				invited.add(res.getString("uuid"));
+			try(ResultSet res = ps.executeQuery()) {
+				while(res.next()) {
+					invited.add(SchemaMigrator.fromBytes(res.getBytes("uuid")));
+				}
+				return invited;
 			}
-			closeConnection();
-			return invited;
 		} catch (SQLException e) {
 			logger.error("Error getting invited...");
 			logger.error(e.getMessage());
-			closeConnection();
 			return invited;
 		}
 	}
 	
 	public boolean setOwner(ChangeAction action, String owner, String business) {
-		if(!businessExists(business)) {
-			return false;
-		}
 		if(action.equals(ChangeAction.REMOVE)) {
 			//Delete the user
-			reconnect();
-			try {
+			try(PooledConnection con = pool.getConnection()) {
+				if(con==null) return false;
 				PreparedStatement ps = con.prepareStatement("DELETE FROM EconomyLiteBusinessOwners WHERE business = ? AND uuid = ?");
 				ps.setString(1, business);
-				ps.setString(2, owner);
+				setUUID(ps, 2, owner);
 				ps.executeUpdate();
-				closeConnection();
 				return true;
 			} catch (SQLException e) {
 				logger.error("Error setting owner...");
 				logger.error(e.getMessage());
-				closeConnection();
 				return false;
 			}
 		} else if(action.equals(ChangeAction.ADD)) {
-			//Add the user
-			if(getOwners(business).contains(owner)) {
-				//Owner exists
+			//Add the user, nothing is inserted if they are already added or the business doesn't exist
+			try(PooledConnection con = pool.getConnection()) {
+				if(con==null) return false;
+				PreparedStatement ps = con.prepareStatement("INSERT IGNORE INTO EconomyLiteBusinessOwners (`uuid`, `business`) VALUES (?, ?);");
+				setUUID(ps, 1, owner);
+				ps.setString(2, business);
+				return ps.executeUpdate()>0;
+			} catch (SQLException e) {
+				logger.error("Error setting owner...");
+				logger.error(e.getMessage());
 				return false;
-			} else {
-				reconnect();
-				try {
-					PreparedStatement ps = con.prepareStatement("INSERT INTO EconomyLiteBusinessOwners (`uuid`, `business`) VALUES (?, ?);");
-					ps.setString(1, owner);
-					ps.setString(2, business);
-					ps.executeUpdate();
-					closeConnection();
-					return true;
-				} catch (SQLException e) {
-					logger.error("Error setting owner...");
-					logger.error(e.getMessage());
-					closeConnection();
-					return false;
-				}
 			}
 		} else {
 			return false;
@@ -500,45 +679,32 @@ public class MySQLManager {
 	}
 	
 	public boolean setInvite(ChangeAction action, String owner, String business) {
-		if(!businessExists(business)) {
-			return false;
-		}
 		if(action.equals(ChangeAction.REMOVE)) {
 			//Delete the user
-			reconnect();
-			try {
+			try(PooledConnection con = pool.getConnection()) {
+				if(con==null) return false;
 				PreparedStatement ps = con.prepareStatement("DELETE FROM EconomyLiteBusinessInvited WHERE business = ? AND uuid = ?");
 				ps.setString(1, business);
-				ps.setString(2, owner);
+				setUUID(ps, 2, owner);
 				ps.executeUpdate();
-				closeConnection();
 				return true;
 			} catch (SQLException e) {
 				logger.error("Error setting invited...");
 				logger.error(e.getMessage());
-				closeConnection();
 				return false;
 			}
 		} else if(action.equals(ChangeAction.ADD)) {
-			//Add the user
-			if(getInvited(business).contains(owner)) {
-				//Owner exists
+			//Add the user, nothing is inserted if they are already added or the business doesn't exist
+			try(PooledConnection con = pool.getConnection()) {
+				if(con==null) return false;
+				PreparedStatement ps = con.prepareStatement("INSERT IGNORE INTO EconomyLiteBusinessInvited (`uuid`, `business`) VALUES (?, ?);");
+				setUUID(ps, 1, owner);
+				ps.setString(2, business);
+				return ps.executeUpdate()>0;
+			} catch (SQLException e) {
+				logger.error("Error setting invited...");
+				logger.error(e.getMessage());
 				return false;
-			} else {
-				reconnect();
-				try {
-					PreparedStatement ps = con.prepareStatement("INSERT INTO EconomyLiteBusinessInvited (`uuid`, `business`) VALUES (?, ?);");
-					ps.setString(1, owner);
-					ps.setString(2, business);
-					ps.executeUpdate();
-					closeConnection();
-					return true;
-				} catch (SQLException e) {
-					logger.error("Error setting invited...");
-					logger.error(e.getMessage());
-					closeConnection();
-					return false;
-				}
 			}
 		} else {
 			return false;
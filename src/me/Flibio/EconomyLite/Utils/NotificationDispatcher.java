@@ -0,0 +1,85 @@
+package me.Flibio.EconomyLite.Utils;
+
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.text.Text;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class NotificationDispatcher {
+
+	private ConcurrentHashMap<UUID, Player> online = new ConcurrentHashMap<UUID, Player>();
+
+	/**
+	 * Sends messages to players who are online, kept up to date by the join and quit listeners
+	 * so a recipient is found without going through every online player.
+	 */
+	public NotificationDispatcher() {
+
+	}
+
+	/**
+	 * Adds a player who joined the server
+	 * @param player
+	 * 	The player
+	 */
+	public void playerJoined(Player player) {
+		online.put(player.getUniqueId(), player);
+	}
+
+	/**
+	 * Removes a player who left the server
+	 * @param player
+	 * 	The player
+	 */
+	public void playerLeft(Player player) {
+		online.remove(player.getUniqueId(), player);
+	}
+
+	/**
+	 * Gets an online player
+	 * @param uuid
+	 * 	UUID of the player
+	 * @return
+	 * 	The player, if they are online
+	 */
+	public Optional<Player> getPlayer(String uuid) {
+		UUID key;
+		try {
+			key = UUID.fromString(uuid);
+		} catch(IllegalArgumentException e) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(online.get(key));
+	}
+
+	/**
+	 * Sends messages to a player if they are online
+	 * @param uuid
+	 * 	UUID of the player
+	 * @param messages
+	 * 	The messages to send
+	 */
+	public void send(String uuid, Text... messages) {
+		Optional<Player> player = getPlayer(uuid);
+		if(!player.isPresent()) return;
+		for(Text message : messages) {
+			player.get().sendMessage(message);
+		}
+	}
+
+	/**
+	 * Sends messages to every player in a list who is online
+	 * @param uuids
+	 * 	UUIDs of the players
+	 * @param messages
+	 * 	The messages to send
+	 */
+	public void sendAll(Collection<String> uuids, Text... messages) {
+		for(String uuid : uuids) {
+			send(uuid, messages);
+		}
+	}
+}
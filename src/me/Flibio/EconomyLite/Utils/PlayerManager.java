@@ -7,9 +7,15 @@ import ninja.leaping.configurate.ConfigurationNode;
 
 import org.slf4j.Logger;
 import org.spongepowered.api.Game;
+import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.profile.GameProfile;
 import org.spongepowered.api.profile.GameProfileManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 
@@ -17,6 +23,8 @@ public class PlayerManager {
 	
 	private Logger logger;
 	private FileManager fileManager;
+	private BalanceCache balanceCache;
+	private ProfileCache profileCache;
 	private Game game;
 	
 	/**
@@ -29,8 +37,10 @@ public class PlayerManager {
 	public PlayerManager() {
 		this.game = EconomyLite.access.game;
 		this.logger = EconomyLite.access.logger;
+		this.balanceCache = EconomyLite.getBalanceCache();
+		this.profileCache = EconomyLite.getProfileCache();
 		
-		fileManager = new FileManager();
+		fileManager = EconomyLite.getFileManager();
 	}
 	
 	/**
@@ -41,6 +51,14 @@ public class PlayerManager {
 	 * 	String of the UUID found(blank string if an error occured)
 	 */
 	public String getUUID(String name) {
+		//Online players and recently seen names don't need a profile lookup
+		Optional<Player> online = game.getServer().getPlayer(name);
+		if(online.isPresent()) {
+			profileCache.put(online.get().getUniqueId(), online.get().getName());
+			return online.get().getUniqueId().toString();
+		}
+		UUID cached = profileCache.getUUID(name);
+		if(cached!=null) return cached.toString();
 		GameProfileManager manager = game.getServer().getGameProfileManager();
 		GameProfile profile;
 		try {
@@ -49,6 +67,7 @@ public class PlayerManager {
 			logger.error("Error getting player's UUID");
 			return "";
 		}
+		cacheProfile(profile);
 		return profile.getUniqueId().toString();
 	}
 	
@@ -60,15 +79,74 @@ public class PlayerManager {
 	 * 	Name of the corresponding player
 	 */
 	public String getName(String uuid) {
+		UUID key = toCacheKey(uuid);
+		if(key==null) return "";
+		String cached = getKnownName(key);
+		if(cached!=null) return cached;
 		GameProfileManager manager = game.getServer().getGameProfileManager();
 		GameProfile profile;
 		try {
-			profile = manager.get(UUID.fromString(uuid)).get();
+			profile = manager.get(key).get();
 		} catch (InterruptedException | ExecutionException e) {
 			logger.error("Error getting player's name");
 			return "";
 		}
-		return profile.getName().toString();
+		cacheProfile(profile);
+		return profile.getName().orElse("");
+	}
+	
+	/**
+	 * Looks up the names of many players at once
+	 * @param uuids
+	 * 	UUIDs of the players whom to lookup
+	 * @return
+	 * 	Names of the players in the same order(blank string for any which could not be found)
+	 */
+	public ArrayList<String> getNames(List<String> uuids) {
+		HashMap<UUID, String> names = new HashMap<UUID, String>();
+		HashSet<UUID> missing = new HashSet<UUID>();
+		for(String uuid : uuids) {
+			UUID key = toCacheKey(uuid);
+			if(key==null) continue;
+			String cached = getKnownName(key);
+			if(cached!=null) {
+				names.put(key, cached);
+			} else {
+				missing.add(key);
+			}
+		}
+		//Everyone who isn't cached is looked up in a single request
+		if(!missing.isEmpty()) {
+			try {
+				for(GameProfile profile : game.getServer().getGameProfileManager().getAllById(missing, true).get()) {
+					cacheProfile(profile);
+					names.put(profile.getUniqueId(), profile.getName().orElse(""));
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				logger.error("Error getting players' names");
+			}
+		}
+		ArrayList<String> ordered = new ArrayList<String>();
+		for(String uuid : uuids) {
+			UUID key = toCacheKey(uuid);
+			String name = key==null ? null : names.get(key);
+			ordered.add(name==null ? "" : name);
+		}
+		return ordered;
+	}
+	
+	//Gets a name from an online player or the cache
+	private String getKnownName(UUID uuid) {
+		Optional<Player> online = game.getServer().getPlayer(uuid);
+		if(online.isPresent()) {
+			profileCache.put(uuid, online.get().getName());
+			return online.get().getName();
+		}
+		return profileCache.getName(uuid);
+	}
+	
+	private void cacheProfile(GameProfile profile) {
+		if(profile.getName().isPresent()) profileCache.put(profile.getUniqueId(), profile.getName().get());
 	}
 	
 	/**
@@ -76,38 +154,48 @@ public class PlayerManager {
 	 * @param uuid
 	 * 	UUID of the player whose balance will be changed
 	 * @param balance
-	 * 	What the player's balance will be set to
+	 * 	What the player's balance will be set to, in the smallest unit of currency
 	 * @return
 	 * 	If the method failed or was successful
 	 */
-	public boolean setBalance(String uuid, int balance) {
+	public boolean setBalance(String uuid, long balance) {
 		//Check if the balance is withing parameters
-		if(balance<0||balance>1000000) return false;
+		if(!FixedPoint.inRange(balance)) return false;
 		if(EconomyLite.access.sqlEnabled) {
 			//Use MySQL
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(mySQL.playerExists(uuid)) {
-				//Change balance
-				if(!mySQL.setBalance(uuid, balance)) return false;
-				game.getEventManager().post(new BalanceChangeEvent(uuid));
-				return true;
+			WriteBehindQueue writeBehind = EconomyLite.getWriteBehind();
+			if(writeBehind!=null) {
+				//Cache the balance and write it with the next batch, holding the same lock as transfers
+				Object lock = getBalanceLock(uuid);
+				if(lock==null) {
+					//New player, nothing else can be changing their balance yet
+					cacheBalance(uuid, balance);
+				} else {
+					synchronized(lock) {
+						cacheBalance(uuid, balance);
+					}
+				}
+				writeCachedBalance(uuid);
 			} else {
-				//Register player
-				if(!mySQL.newPlayer(uuid)) return false;
-				if(!mySQL.setBalance(uuid, balance)) return false;
-				game.getEventManager().post(new BalanceChangeEvent(uuid));
-				return true;
+				//Change the balance, registering the player if needed
+				if(!mySQL.upsertBalance(uuid, balance)) return false;
+				cacheBalance(uuid, balance);
 			}
+			game.getEventManager().post(new BalanceChangeEvent(uuid));
+			return true;
 		} else {
 			//Use local file
 			fileManager.loadFile(FileType.DATA);
-			ConfigurationNode root = fileManager.getFile(FileType.DATA);
 			
 			//Check if the player exists
-			if(playerExists(uuid)) {
-				//Player exists - change balance
-				root.getNode(uuid).getNode("balance").setValue(balance);
-				fileManager.saveFile(FileType.DATA, root);
+			Object lock = getBalanceLock(uuid);
+			if(lock!=null) {
+				//Player exists - change balance, holding the same lock as transfers
+				synchronized(lock) {
+					cacheBalance(uuid, balance);
+				}
+				writeCachedBalance(uuid);
 				//Post a balance change event with the player's uuid
 				game.getEventManager().post(new BalanceChangeEvent(uuid));
 				return true;
@@ -137,8 +225,9 @@ public class PlayerManager {
 		if(EconomyLite.access.sqlEnabled) {
 			//MySQL
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(mySQL.playerExists(uuid)) return false;
-			return mySQL.newPlayer(uuid);
+			if(!mySQL.newPlayer(uuid)) return false;
+			cacheBalance(uuid, 0);
+			return true;
 		} else {
 			//Use local file
 			fileManager.loadFile(FileType.DATA);
@@ -150,8 +239,11 @@ public class PlayerManager {
 				return false;
 			} else {
 				//Register the player
-				root.getNode(uuid).getNode("balance").setValue(0);
-				fileManager.saveFile(FileType.DATA, root);
+				synchronized(fileManager.getSaveLock()) {
+					root.getNode(uuid).getNode("balance").setValue(0);
+				}
+				saveBalance(root, uuid, 0);
+				cacheBalance(uuid, 0);
 				return true;
 			}
 		}
@@ -166,13 +258,13 @@ public class PlayerManager {
 	 * @return
 	 * 	If the method was successful or not
 	 */
-	public boolean registerPlayer(String uuid, int balance) {
+	public boolean registerPlayer(String uuid, long balance) {
 		if(EconomyLite.access.sqlEnabled) {
 			//MySQL
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(mySQL.playerExists(uuid)) return false;
-			if(!mySQL.newPlayer(uuid)) return false;
-			return mySQL.setBalance(uuid, balance);
+			if(!mySQL.newPlayer(uuid, balance)) return false;
+			cacheBalance(uuid, balance);
+			return true;
 		} else {
 			//Use local file
 			fileManager.loadFile(FileType.DATA);
@@ -184,8 +276,11 @@ public class PlayerManager {
 				return false;
 			} else {
 				//Register the player
-				root.getNode(uuid).getNode("balance").setValue(balance);
-				fileManager.saveFile(FileType.DATA, root);
+				synchronized(fileManager.getSaveLock()) {
+					root.getNode(uuid).getNode("balance").setValue(balance);
+				}
+				saveBalance(root, uuid, balance);
+				cacheBalance(uuid, balance);
 				return true;
 			}
 		}
@@ -199,6 +294,9 @@ public class PlayerManager {
 	 * 	If the player was found or not
 	 */
 	public boolean playerExists(String uuid) {
+		//Check the cache first
+		UUID cacheKey = toCacheKey(uuid);
+		if(cacheKey!=null&&balanceCache.contains(cacheKey)) return true;
 		if(EconomyLite.optionEnabled("mysql.enabled")) {
 			//Use MySQL
 			MySQLManager mySQL = EconomyLite.getMySQL();
@@ -224,14 +322,24 @@ public class PlayerManager {
 	 * @param uuid
 	 * 	UUID of the player whose balance will be checked
 	 * @return
-	 * 	The balance of the player (-1 will be returned if there was an error)
+	 * 	The balance of the player in the smallest unit of currency (-1 will be returned if there was an error)
 	 */
-	public int getBalance(String uuid) {
+	public long getBalance(String uuid) {
+		//Check the cache first
+		UUID cacheKey = toCacheKey(uuid);
+		if(cacheKey!=null) {
+			long cached = balanceCache.get(cacheKey);
+			if(cached>=0) return cached;
+		}
 		if(EconomyLite.optionEnabled("mysql.enabled")) {
 			//Use MySQL
 			MySQLManager mySQL = EconomyLite.getMySQL();
-			if(!mySQL.playerExists(uuid)) return -1;
-			return mySQL.getBalance(uuid);
+			//A balance waiting to be written is newer than the database
+			WriteBehindQueue writeBehind = EconomyLite.getWriteBehind();
+			long balance = writeBehind==null ? -1 : writeBehind.getPending(uuid);
+			if(balance<0) balance = mySQL.getBalance(uuid);
+			if(cacheKey!=null&&balance>=0) balanceCache.putIfAbsent(cacheKey, balance);
+			return balance;
 		} else {
 			//Use local file
 			fileManager.loadFile(FileType.DATA);
@@ -241,13 +349,14 @@ public class PlayerManager {
 			if(playerExists(uuid)) {
 				//Retrieve their balance
 				String raw = root.getNode(uuid).getNode("balance").getString();
-				int balance = -1;
+				long balance = -1;
 				try {
-					balance = Integer.parseInt(raw);
+					balance = Long.parseLong(raw);
 				} catch(NumberFormatException e) {
 					logger.error("Error getting player balance!");
 					logger.error(e.getMessage());
 				}
+				if(cacheKey!=null&&balance>=0) balanceCache.putIfAbsent(cacheKey, balance);
 				return balance;
 			} else {
 				return -1;
@@ -256,7 +365,7 @@ public class PlayerManager {
 	}
 	
 	/**
-	 * Adds the specified amount of currency to the specified player
+	 * Adds the specified amount of currency to the specified player, registering them if they have no account yet
 	 * @param uuid
 	 * 	UUID of the player who will receive the currency
 	 * @param amount
@@ -264,8 +373,13 @@ public class PlayerManager {
 	 * @return
 	 * 	If the method failed or was successful
 	 */
-	public boolean addCurrency(String uuid, int amount) {
-		return setBalance(uuid, getBalance(uuid) + amount);
+	public boolean addCurrency(String uuid, long amount) {
+		if(changeBalance(uuid, amount)) return true;
+		//A player without an account is registered with the deposit as their balance
+		if(amount<0||!FixedPoint.inRange(amount)||toCacheKey(uuid)==null||playerExists(uuid)) return false;
+		if(!registerPlayer(uuid, amount)) return false;
+		game.getEventManager().post(new BalanceChangeEvent(uuid));
+		return true;
 	}
 	
 	/**
@@ -277,7 +391,128 @@ public class PlayerManager {
 	 * @return
 	 * 	If the method failed or was successful
 	 */
-	public boolean removeCurrency(String uuid, int amount) {
-		return setBalance(uuid, getBalance(uuid) - amount);
+	public boolean removeCurrency(String uuid, long amount) {
+		return changeBalance(uuid, -amount);
+	}
+	
+	//Atomically adds an amount to a player's balance, the balance must stay in-between 0 and the highest balance
+	private boolean changeBalance(String uuid, long amount) {
+		UUID cacheKey = toCacheKey(uuid);
+		if(cacheKey==null) return false;
+		if(EconomyLite.access.sqlEnabled&&EconomyLite.getWriteBehind()==null) {
+			//Use MySQL
+			MySQLManager mySQL = EconomyLite.getMySQL();
+			if(!mySQL.addBalance(uuid, amount, FixedPoint.getMaxBalance())) return false;
+			adjustCachedBalance(uuid, amount);
+		} else {
+			//Use local file or write-behind - make sure the balance is in memory, holding the same lock as transfers
+			Object lock = getBalanceLock(uuid);
+			if(lock==null) return false;
+			synchronized(lock) {
+				if(!addToCachedBalance(uuid, amount)) return false;
+			}
+			writeCachedBalance(uuid);
+		}
+		game.getEventManager().post(new BalanceChangeEvent(uuid));
+		return true;
+	}
+	
+	/**
+	 * Discards the cached balance of the given player, the next lookup will read from storage.
+	 * 
+	 * Plugins which modify EconomyLite's storage directly should call this afterwards. With the data files
+	 * or MySQL write-behind the cache holds the newest balances, so nothing is discarded.
+	 * @param uuid
+	 * 	UUID of the player whose cached balance will be discarded
+	 */
+	public void invalidateCache(String uuid) {
+		UUID cacheKey = toCacheKey(uuid);
+		if(cacheKey!=null&&!cacheIsAuthoritative()) balanceCache.invalidate(cacheKey);
+	}
+	
+	/**
+	 * Discards every cached balance, all lookups will read from storage again.
+	 * 
+	 * With the data files or MySQL write-behind the cache holds the newest balances, so nothing is discarded.
+	 */
+	public void invalidateCache() {
+		if(!cacheIsAuthoritative()) balanceCache.invalidateAll();
+	}
+	
+	//Balances changed in the cache may not be written yet, dropping them would lose the change
+	private boolean cacheIsAuthoritative() {
+		return !EconomyLite.access.sqlEnabled||EconomyLite.getWriteBehind()!=null;
+	}
+	
+	//Gets the lock of a resident balance, loading the balance if needed
+	Object getBalanceLock(String uuid) {
+		UUID cacheKey = toCacheKey(uuid);
+		if(cacheKey==null||getBalance(uuid)<0) return null;
+		return balanceCache.getLock(cacheKey);
+	}
+	
+	//Atomically changes a cached balance without persisting it
+	boolean addToCachedBalance(String uuid, long amount) {
+		UUID cacheKey = toCacheKey(uuid);
+		if(cacheKey==null) return false;
+		return balanceCache.add(cacheKey, amount, FixedPoint.getMaxBalance())>=0;
+	}
+	
+	//Keeps the cache in line with a change which was already made in MySQL
+	void adjustCachedBalance(String uuid, long amount) {
+		UUID cacheKey = toCacheKey(uuid);
+		if(cacheKey==null) return;
+		if(balanceCache.add(cacheKey, amount, Long.MAX_VALUE)<0) balanceCache.invalidate(cacheKey);
+	}
+	
+	//Writes a cached balance to the resident data file, or queues it for MySQL
+	void writeCachedBalance(String uuid) {
+		UUID cacheKey = toCacheKey(uuid);
+		if(cacheKey==null) return;
+		WriteBehindQueue writeBehind = EconomyLite.getWriteBehind();
+		ConfigurationNode root = fileManager.getFile(FileType.DATA);
+		//Write the newest balance, even if another change raced this one
+		long written;
+		do {
+			written = balanceCache.get(cacheKey);
+			if(written<0) return;
+			if(writeBehind!=null) {
+				writeBehind.enqueue(uuid, written);
+			} else {
+				//Snapshots read the tree while holding the save lock
+				synchronized(fileManager.getSaveLock()) {
+					root.getNode(uuid).getNode("balance").setValue(written);
+				}
+				saveBalance(root, uuid, written);
+			}
+		} while(balanceCache.get(cacheKey)!=written);
+	}
+	
+	//Persists a balance change made to the resident data file
+	private void saveBalance(ConfigurationNode root, String uuid, long balance) {
+		BalanceJournal journal = EconomyLite.getJournal();
+		if(journal!=null) {
+			journal.append(uuid, balance);
+		} else {
+			fileManager.saveFile(FileType.DATA, root);
+		}
+	}
+	
+	private void cacheBalance(String uuid, long balance) {
+		UUID cacheKey = toCacheKey(uuid);
+		if(cacheKey==null) return;
+		if(balance<0) {
+			balanceCache.invalidate(cacheKey);
+		} else {
+			balanceCache.put(cacheKey, balance);
+		}
+	}
+	
+	private UUID toCacheKey(String uuid) {
+		try {
+			return UUID.fromString(uuid);
+		} catch(IllegalArgumentException e) {
+			return null;
+		}
 	}
 }
\ No newline at end of file
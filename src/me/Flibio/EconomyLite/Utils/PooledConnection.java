@@ -0,0 +1,115 @@
+package me.Flibio.EconomyLite.Utils;
+
+import me.Flibio.EconomyLite.EconomyLite;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PooledConnection implements AutoCloseable {
+
+	//Most statements kept open for one connection
+	private static final int STATEMENT_CACHE_SIZE = 64;
+
+	private Connection connection;
+	private ConnectionPool pool;
+	private LinkedHashMap<String, PreparedStatement> statements;
+
+	/**
+	 * A connection borrowed from the ConnectionPool, closing it gives it back to the pool.
+	 *
+	 * Prepared statements are cached by their SQL and reused every time the connection is borrowed.
+	 * @param connection
+	 * 	The JDBC connection
+	 * @param pool
+	 * 	The pool the connection belongs to
+	 */
+	public PooledConnection(Connection connection, ConnectionPool pool) {
+		this.connection = connection;
+		this.pool = pool;
+		//Least recently used statements are closed once the cache is full
+		this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+				if(size()<=STATEMENT_CACHE_SIZE) return false;
+				closeQuietly(eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Gets a prepared statement for the given SQL, reusing it if it was prepared before.
+	 *
+	 * The statement belongs to the connection and must not be closed by the caller.
+	 * @param sql
+	 * 	The SQL of the statement
+	 * @return
+	 * 	The prepared statement, with its parameters cleared
+	 * @throws SQLException
+	 */
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		PreparedStatement statement = statements.get(sql);
+		if(statement==null||statement.isClosed()) {
+			statement = connection.prepareStatement(sql);
+			statements.put(sql, statement);
+		} else {
+			statement.clearParameters();
+			statement.clearBatch();
+		}
+		return statement;
+	}
+
+	/**
+	 * Gets the JDBC connection, for statements which should not be cached
+	 * @return
+	 * 	The JDBC connection
+	 */
+	public Connection getConnection() {
+		return connection;
+	}
+
+	public void setAutoCommit(boolean autoCommit) throws SQLException {
+		connection.setAutoCommit(autoCommit);
+	}
+
+	public void commit() throws SQLException {
+		connection.commit();
+	}
+
+	public void rollback() throws SQLException {
+		connection.rollback();
+	}
+
+	/**
+	 * Gives the connection back to the pool
+	 */
+	@Override
+	public void close() {
+		pool.release(this);
+	}
+
+	/**
+	 * Closes every cached statement
+	 */
+	public void closeStatements() {
+		for(PreparedStatement statement : statements.values()) {
+			closeQuietly(statement);
+		}
+		statements.clear();
+	}
+
+	private void closeQuietly(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			EconomyLite.access.logger.error("Error closing MySQL statement...");
+			EconomyLite.access.logger.error(e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+package me.Flibio.EconomyLite.Utils;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+public class ProfileCache {
+
+	private static class Profile {
+		private final UUID uuid;
+		private final String name;
+		private final long expiresAt;
+
+		private Profile(UUID uuid, String name, long expiresAt) {
+			this.uuid = uuid;
+			this.name = name;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	private final int maxSize;
+	private final long ttlMillis;
+	private LinkedHashMap<UUID, Profile> byUuid;
+	//Lowercase name -> profile, names are not case sensitive
+	private HashMap<String, Profile> byName = new HashMap<String, Profile>();
+
+	/**
+	 * Remembers which name belongs to which UUID, so commands don't have to look up a profile every time.
+	 *
+	 * Entries expire so name changes are picked up, and once the cache is full the least recently
+	 * used player is dropped.
+	 * @param maxSize
+	 * 	Most players to remember
+	 * @param ttlMillis
+	 * 	How long an entry stays valid
+	 */
+	public ProfileCache(int maxSize, long ttlMillis) {
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.byUuid = new LinkedHashMap<UUID, Profile>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UUID, Profile> eldest) {
+				if(size()<=ProfileCache.this.maxSize) return false;
+				byName.remove(eldest.getValue().name.toLowerCase(Locale.ROOT), eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Remembers the name of a player
+	 * @param uuid
+	 * 	UUID of the player
+	 * @param name
+	 * 	Current name of the player
+	 */
+	public synchronized void put(UUID uuid, String name) {
+		if(name==null||name.isEmpty()) return;
+		Profile profile = new Profile(uuid, name, System.currentTimeMillis()+ttlMillis);
+		//The player may have changed their name, and the name may have belonged to someone else
+		Profile oldByUuid = byUuid.put(uuid, profile);
+		if(oldByUuid!=null) byName.remove(oldByUuid.name.toLowerCase(Locale.ROOT), oldByUuid);
+		Profile oldByName = byName.put(name.toLowerCase(Locale.ROOT), profile);
+		if(oldByName!=null&&!oldByName.uuid.equals(uuid)) byUuid.remove(oldByName.uuid, oldByName);
+	}
+
+	/**
+	 * Gets the UUID of a player
+	 * @param name
+	 * 	Name of the player
+	 * @return
+	 * 	The UUID(null if it is not cached or has expired)
+	 */
+	public synchronized UUID getUUID(String name) {
+		Profile profile = byName.get(name.toLowerCase(Locale.ROOT));
+		if(profile==null||expire(profile)) return null;
+		return profile.uuid;
+	}
+
+	/**
+	 * Gets the name of a player
+	 * @param uuid
+	 * 	UUID of the player
+	 * @return
+	 * 	The name(null if it is not cached or has expired)
+	 */
+	public synchronized String getName(UUID uuid) {
+		Profile profile = byUuid.get(uuid);
+		if(profile==null||expire(profile)) return null;
+		return profile.name;
+	}
+
+	//Removes the profile if it has expired
+	private boolean expire(Profile profile) {
+		if(System.currentTimeMillis()<profile.expiresAt) return false;
+		byUuid.remove(profile.uuid, profile);
+		byName.remove(profile.name.toLowerCase(Locale.ROOT), profile);
+		return true;
+	}
+}
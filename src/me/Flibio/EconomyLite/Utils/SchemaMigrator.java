@@ -0,0 +1,282 @@
+package me.Flibio.EconomyLite.Utils;
+
+import me.Flibio.EconomyLite.EconomyLite;
+
+import org.slf4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+public class SchemaMigrator {
+
+	//Version of the schema created by this version of EconomyLite
+	public static final int CURRENT_VERSION = 3;
+	//Rows copied per transaction while migrating
+	private static final int CHUNK_SIZE = 1000;
+
+	private static final String[] TABLES = {"EconomyLite", "EconomyLiteBusinesses", "EconomyLiteBusinessOwners", "EconomyLiteBusinessInvited"};
+
+	private ConnectionPool pool;
+
+	private Logger logger = EconomyLite.access.logger;
+
+	/**
+	 * Creates the EconomyLite tables and upgrades them from older versions.
+	 *
+	 * Version 1 tables are renamed with a _v1 suffix, the new tables are created in their place
+	 * and the rows are copied over in small transactions. The _v1 tables are kept as a backup.
+	 * Version 2 only loses the needConfirm column, delete confirmations are kept in memory since version 3.
+	 * @param pool
+	 * 	Pool to borrow connections from
+	 */
+	public SchemaMigrator(ConnectionPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Brings the database up to the current schema version
+	 * @return
+	 * 	If the schema is up to date
+	 */
+	public boolean migrate() {
+		try(PooledConnection pooled = pool.getConnection()) {
+			if(pooled==null) return false;
+			//Migration statements only run once, so they are not cached
+			Connection con = pooled.getConnection();
+			try {
+				return migrate(con);
+			} finally {
+				con.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			logger.error("Error upgrading the EconomyLite database...");
+			logger.error(e.getMessage());
+			return false;
+		}
+	}
+
+	private boolean migrate(Connection con) throws SQLException {
+		execute(con, "CREATE TABLE IF NOT EXISTS EconomyLiteSchema(version INT NOT NULL) ENGINE=InnoDB");
+		//Settings the stored data depends on, such as the fraction digits of the balances
+		execute(con, "CREATE TABLE IF NOT EXISTS EconomyLiteMeta(name VARCHAR(64) NOT NULL PRIMARY KEY, value VARCHAR(255) NOT NULL) ENGINE=InnoDB");
+		int version = getVersion(con);
+		if(version>=CURRENT_VERSION) return true;
+		if(version==2) {
+			//The column is already gone if a previous migration stopped before storing the version
+			if(columnExists(con, "EconomyLiteBusinesses", "needConfirm")) execute(con, "ALTER TABLE EconomyLiteBusinesses DROP COLUMN needConfirm");
+			setVersion(con, CURRENT_VERSION);
+			return true;
+		}
+		//Move the version 1 tables out of the way, unless a previous migration already did
+		if(tableExists(con, "EconomyLite")&&!tableExists(con, "EconomyLite_v1")) {
+			logger.info("Upgrading the EconomyLite database, this may take a while...");
+			renameVersionOneTables(con);
+		}
+		createTables(con);
+		if(tableExists(con, "EconomyLite_v1")) {
+			//The copies skip rows which are already there, so a migration which failed part way is finished on the next start
+			copyPlayers(con);
+			copyBusinesses(con);
+			copyMembers(con, "EconomyLiteBusinessOwners");
+			copyMembers(con, "EconomyLiteBusinessInvited");
+			logger.info("EconomyLite database upgraded, the old tables were kept with a _v1 suffix");
+		}
+		//Only reached once every row has been copied
+		setVersion(con, CURRENT_VERSION);
+		return true;
+	}
+
+	/**
+	 * Converts a UUID to the 16 bytes it is stored as
+	 * @param uuid
+	 * 	The UUID as a string
+	 * @return
+	 * 	The 16 byte form of the UUID, null if the string is not a UUID
+	 */
+	public static byte[] toBytes(String uuid) {
+		UUID parsed;
+		try {
+			parsed = UUID.fromString(uuid);
+		} catch(IllegalArgumentException e) {
+			return null;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		buffer.putLong(parsed.getMostSignificantBits());
+		buffer.putLong(parsed.getLeastSignificantBits());
+		return buffer.array();
+	}
+
+	/**
+	 * Converts a stored UUID back to a string
+	 * @param bytes
+	 * 	The 16 byte form of the UUID
+	 * @return
+	 * 	The UUID as a string
+	 */
+	public static String fromBytes(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		return new UUID(buffer.getLong(), buffer.getLong()).toString();
+	}
+
+	private void createTables(Connection con) throws SQLException {
+		//Business names are case-insensitive keys, utf8 keeps the longest name within InnoDB's key size
+		execute(con, "CREATE TABLE IF NOT EXISTS EconomyLite(uuid BINARY(16) NOT NULL PRIMARY KEY, "
+				+ "currency BIGINT NOT NULL DEFAULT 0) ENGINE=InnoDB");
+		execute(con, "CREATE TABLE IF NOT EXISTS EconomyLiteBusinesses(name VARCHAR(1000) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL PRIMARY KEY, "
+				+ "balance BIGINT NOT NULL DEFAULT 0) ENGINE=InnoDB ROW_FORMAT=DYNAMIC");
+		for(String table : new String[] {"EconomyLiteBusinessOwners", "EconomyLiteBusinessInvited"}) {
+			execute(con, "CREATE TABLE IF NOT EXISTS "+table+"(business VARCHAR(1000) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL, "
+					+ "uuid BINARY(16) NOT NULL, PRIMARY KEY(business, uuid), INDEX(uuid), "
+					+ "FOREIGN KEY(business) REFERENCES EconomyLiteBusinesses(name) ON DELETE CASCADE) ENGINE=InnoDB ROW_FORMAT=DYNAMIC");
+		}
+	}
+
+	private void renameVersionOneTables(Connection con) throws SQLException {
+		StringBuilder rename = new StringBuilder();
+		for(String table : TABLES) {
+			if(!tableExists(con, table)) continue;
+			rename.append(rename.length()==0 ? "RENAME TABLE " : ", ");
+			rename.append(table).append(" TO ").append(table).append("_v1");
+		}
+		//All of the tables are renamed at once
+		execute(con, rename.toString());
+	}
+
+	private void copyPlayers(Connection con) throws SQLException {
+		int copied = copyInChunks(con, "EconomyLite_v1", "uuid, currency",
+				"INSERT IGNORE INTO EconomyLite (uuid, currency) VALUES (?, ?)", (res, ps) -> {
+			byte[] uuid = toBytes(res.getString("uuid"));
+			if(uuid==null) return false;
+			ps.setBytes(1, uuid);
+			ps.setLong(2, res.getLong("currency"));
+			return true;
+		});
+		logger.info("Copied "+copied+" players");
+	}
+
+	private void copyBusinesses(Connection con) throws SQLException {
+		if(!tableExists(con, "EconomyLiteBusinesses_v1")) return;
+		int copied = copyInChunks(con, "EconomyLiteBusinesses_v1", "name, balance",
+				"INSERT IGNORE INTO EconomyLiteBusinesses (name, balance) VALUES (?, ?)", (res, ps) -> {
+			String name = res.getString("name");
+			if(name==null) return false;
+			ps.setString(1, name);
+			ps.setLong(2, res.getLong("balance"));
+			return true;
+		});
+		logger.info("Copied "+copied+" businesses");
+	}
+
+	private void copyMembers(Connection con, String table) throws SQLException {
+		if(!tableExists(con, table+"_v1")) return;
+		//Rows of deleted businesses are skipped by the foreign key
+		copyInChunks(con, table+"_v1", "uuid, business",
+				"INSERT IGNORE INTO "+table+" (business, uuid) VALUES (?, ?)", (res, ps) -> {
+			byte[] uuid = toBytes(res.getString("uuid"));
+			String business = res.getString("business");
+			if(uuid==null||business==null) return false;
+			ps.setString(1, business);
+			ps.setBytes(2, uuid);
+			return true;
+		});
+	}
+
+	private int copyInChunks(Connection con, String table, String columns, String insertSql, RowCopier copier) throws SQLException {
+		addMigrationKey(con, table);
+		long lastId = 0;
+		int copied = 0;
+		int chunks = 0;
+		con.setAutoCommit(false);
+		try(PreparedStatement select = con.prepareStatement("SELECT migrateId, "+columns+" FROM "+table+" WHERE migrateId > ? ORDER BY migrateId LIMIT ?");
+				PreparedStatement insert = con.prepareStatement(insertSql)) {
+			while(true) {
+				//Pages start after the last row read, so each page is found through the key instead of skipping rows
+				select.setLong(1, lastId);
+				select.setInt(2, CHUNK_SIZE);
+				int read = 0;
+				try(ResultSet res = select.executeQuery()) {
+					while(res.next()) {
+						read++;
+						lastId = res.getLong("migrateId");
+						if(copier.copy(res, insert)) {
+							insert.addBatch();
+							copied++;
+						}
+					}
+				}
+				//Each chunk is its own transaction, so the tables are never locked for long
+				try {
+					insert.executeBatch();
+					con.commit();
+				} catch(SQLException e) {
+					con.rollback();
+					throw e;
+				}
+				if(read<CHUNK_SIZE) break;
+				//Show that a long upgrade is still making progress
+				chunks++;
+				if(chunks%100==0) logger.info("Copied "+copied+" rows of "+table+" so far...");
+			}
+		} finally {
+			con.setAutoCommit(true);
+		}
+		return copied;
+	}
+
+	//Version 1 tables have no key, so one is added to page through their rows in order
+	private void addMigrationKey(Connection con, String table) throws SQLException {
+		if(columnExists(con, table, "migrateId")) return;
+		execute(con, "ALTER TABLE "+table+" ADD COLUMN migrateId BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY");
+	}
+
+	private int getVersion(Connection con) throws SQLException {
+		try(Statement statement = con.createStatement(); ResultSet res = statement.executeQuery("SELECT MAX(version) FROM EconomyLiteSchema")) {
+			if(!res.next()) return 1;
+			int version = res.getInt(1);
+			return res.wasNull() ? 1 : version;
+		}
+	}
+
+	private void setVersion(Connection con, int version) throws SQLException {
+		execute(con, "DELETE FROM EconomyLiteSchema");
+		try(PreparedStatement ps = con.prepareStatement("INSERT INTO EconomyLiteSchema (version) VALUES (?)")) {
+			ps.setInt(1, version);
+			ps.executeUpdate();
+		}
+	}
+
+	private boolean tableExists(Connection con, String table) throws SQLException {
+		try(PreparedStatement ps = con.prepareStatement("SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?")) {
+			ps.setString(1, table);
+			try(ResultSet res = ps.executeQuery()) {
+				return res.next()&&res.getInt(1)>0;
+			}
+		}
+	}
+
+	private boolean columnExists(Connection con, String table, String column) throws SQLException {
+		try(PreparedStatement ps = con.prepareStatement("SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?")) {
+			ps.setString(1, table);
+			ps.setString(2, column);
+			try(ResultSet res = ps.executeQuery()) {
+				return res.next()&&res.getInt(1)>0;
+			}
+		}
+	}
+
+	private void execute(Connection con, String sql) throws SQLException {
+		try(Statement statement = con.createStatement()) {
+			statement.executeUpdate(sql);
+		}
+	}
+
+	private interface RowCopier {
+		boolean copy(ResultSet res, PreparedStatement insert) throws SQLException;
+	}
+
+}
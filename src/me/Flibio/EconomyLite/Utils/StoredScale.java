@@ -0,0 +1,120 @@
+package me.Flibio.EconomyLite.Utils;
+
+import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.Utils.FileManager.FileType;
+import ninja.leaping.configurate.ConfigurationNode;
+
+import org.slf4j.Logger;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+public class StoredScale {
+
+	//Node of data.conf holding the fraction digits, it is not a UUID so it is never taken for a player
+	private static final String DATA_NODE = "Fraction-Digits";
+
+	private FileManager fileManager;
+
+	private Logger logger = EconomyLite.access.logger;
+
+	/**
+	 * Keeps the fraction digits of the stored balances next to the balances themselves.
+	 *
+	 * When more fraction digits are configured than the balances were stored with, every balance is
+	 * converted once. Balances from before the fraction digits were stored are whole units. Fewer fraction digits would lose currency, so EconomyLite refuses to start instead.
+	 * @param fileManager
+	 * 	FileManager holding the resident data files
+	 */
+	public StoredScale(FileManager fileManager) {
+		this.fileManager = fileManager;
+	}
+
+	/**
+	 * Makes sure the stored balances use the configured fraction digits, converting them if needed
+	 * @return
+	 * 	If the stored balances can be used
+	 */
+	public boolean check() {
+		int digits = FixedPoint.getFractionDigits();
+		int stored = EconomyLite.access.sqlEnabled ? EconomyLite.getMySQL().getFractionDigits() : getFileDigits();
+		if(stored==-2) return false;
+		if(stored==-1) {
+			//Balances stored before the fraction digits were saved are whole units, a new install has nothing to convert
+			stored = hasAccounts() ? 0 : digits;
+		}
+		if(stored>digits) {
+			logger.error("Balances are stored with "+stored+" fraction digits, but Currency-Fraction-Digits is "+digits+"!");
+			logger.error("Set it back to "+stored+", removing fraction digits would lose currency.");
+			return false;
+		}
+		long factor = FixedPoint.getScaleFactor(stored);
+		if(factor!=1) logger.info("Converting balances from "+stored+" to "+digits+" fraction digits...");
+		if(EconomyLite.access.sqlEnabled) {
+			//Balances waiting to be written must reach MySQL before they are converted with the rest
+			WriteBehindQueue writeBehind = EconomyLite.getWriteBehind();
+			if(factor!=1&&writeBehind!=null&&!writeBehind.flush()) {
+				logger.error("Error writing pending balances before converting them!");
+				return false;
+			}
+			return EconomyLite.getMySQL().setFractionDigits(digits, factor);
+		} else {
+			return setFileDigits(digits, factor);
+		}
+	}
+
+	//Checks if any balance was stored without its fraction digits
+	private boolean hasAccounts() {
+		if(EconomyLite.access.sqlEnabled) return EconomyLite.getMySQL().hasAccounts();
+		for(Object key : fileManager.getFile(FileType.DATA).getChildrenMap().keySet()) {
+			if(!key.equals(DATA_NODE)) return true;
+		}
+		return !fileManager.getFile(FileType.BUSINESS_DATA).getChildrenMap().isEmpty();
+	}
+
+	//Reads the fraction digits from data.conf
+	private int getFileDigits() {
+		ConfigurationNode node = fileManager.getFile(FileType.DATA).getNode(DATA_NODE);
+		if(node.isVirtual()) return -1;
+		try {
+			return Integer.parseInt(node.getString());
+		} catch(NumberFormatException e) {
+			logger.error("Error getting the stored fraction digits!");
+			logger.error(e.getMessage());
+			return -2;
+		}
+	}
+
+	//Converts the balances of both data files and stores the fraction digits in data.conf
+	private boolean setFileDigits(int digits, long factor) {
+		ConfigurationNode data = fileManager.getFile(FileType.DATA);
+		ConfigurationNode businesses = fileManager.getFile(FileType.BUSINESS_DATA);
+		if(factor!=1) {
+			//Every balance is converted before any is changed, so a balance which doesn't fit changes nothing
+			//Nodes are compared by identity, two balances with the same value are still two entries
+			IdentityHashMap<ConfigurationNode, Long> converted = new IdentityHashMap<ConfigurationNode, Long>();
+			if(!convert(data, factor, converted)||!convert(businesses, factor, converted)) return false;
+			for(Map.Entry<ConfigurationNode, Long> balance : converted.entrySet()) {
+				balance.getKey().setValue(balance.getValue());
+			}
+			if(!fileManager.saveFileNow(FileType.BUSINESS_DATA)) return false;
+		}
+		data.getNode(DATA_NODE).setValue(digits);
+		return fileManager.saveFileNow(FileType.DATA);
+	}
+
+	private boolean convert(ConfigurationNode root, long factor, IdentityHashMap<ConfigurationNode, Long> converted) {
+		for(ConfigurationNode account : root.getChildrenMap().values()) {
+			ConfigurationNode balance = account.getNode("balance");
+			if(balance.isVirtual()) continue;
+			try {
+				converted.put(balance, Math.multiplyExact(Long.parseLong(balance.getString()), factor));
+			} catch(NumberFormatException | ArithmeticException e) {
+				logger.error("Error converting the balance of "+account.getKey()+"!");
+				logger.error(e.getMessage());
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -15,6 +15,11 @@ public class TextUtils {
 	private TextUtils() {
 	}
 	
+	//The highest balance in whole units, as shown in error messages
+	public static String maxBalance() {
+		return String.format("%,d", FixedPoint.toWhole(FixedPoint.getMaxBalance()));
+	}
+	
 	public static Text basicText(String text, TextColor color) {
 		return Text.builder(text).color(color).build();
 	}
@@ -23,51 +28,51 @@ public class TextUtils {
 		return Text.builder(text).build();
 	}
 	
-	public static Text playerBalanceText(int balance) {
+	public static Text playerBalanceText(long balance) {
 		Text balanceText = Text.builder("EconomyLite � ").color(TextColors.GOLD).build();
 		String label = EconomyLite.access.currencyPlural;
-		if(balance==1) label = EconomyLite.access.currencySingular;
+		if(FixedPoint.isOne(balance)) label = EconomyLite.access.currencySingular;
 
 		balanceText = balanceText.toBuilder().append(basicText("Your balance: ",TextColors.YELLOW)).build();
-		balanceText = balanceText.toBuilder().append(basicText(balance+" ",TextColors.GREEN)).build();
+		balanceText = balanceText.toBuilder().append(basicText(FixedPoint.format(balance)+" ",TextColors.GREEN)).build();
 		balanceText = balanceText.toBuilder().append(basicText(label+"!",TextColors.DARK_GREEN)).build();
 		
 		return balanceText;
 	}
 	
-	public static Text playerBalanceText(int balance, String who) {
+	public static Text playerBalanceText(long balance, String who) {
         Text balanceText = Text.builder("EconomyLite � ").color(TextColors.GOLD).build();
         String label = EconomyLite.access.currencyPlural;
-        if(balance==1) label = EconomyLite.access.currencySingular;
+        if(FixedPoint.isOne(balance)) label = EconomyLite.access.currencySingular;
 
         balanceText = balanceText.toBuilder().append(basicText(who+"'s balance: ",TextColors.YELLOW)).build();
-        balanceText = balanceText.toBuilder().append(basicText(balance+" ",TextColors.GREEN)).build();
+        balanceText = balanceText.toBuilder().append(basicText(FixedPoint.format(balance)+" ",TextColors.GREEN)).build();
         balanceText = balanceText.toBuilder().append(basicText(label+"!",TextColors.DARK_GREEN)).build();
         
         return balanceText;
     }
 	
-	public static Text businessBalanceText(String businessName, int balance) {
+	public static Text businessBalanceText(String businessName, long balance) {
 		Text balanceText = Text.builder("EconomyLite � ").color(TextColors.GOLD).build();
 		String label = EconomyLite.access.currencyPlural;
-		if(balance==1) label = EconomyLite.access.currencySingular;
+		if(FixedPoint.isOne(balance)) label = EconomyLite.access.currencySingular;
 
 		balanceText = balanceText.toBuilder().append(basicText(businessName+" balance: ",TextColors.YELLOW)).build();
-		balanceText = balanceText.toBuilder().append(basicText(balance+" ",TextColors.GREEN)).build();
+		balanceText = balanceText.toBuilder().append(basicText(FixedPoint.format(balance)+" ",TextColors.GREEN)).build();
 		balanceText = balanceText.toBuilder().append(basicText(label+"!",TextColors.DARK_GREEN)).build();
 		
 		return balanceText;
 	}
 	
-	public static Text successfulBalanceChangeText(String playerName, int balance) {
+	public static Text successfulBalanceChangeText(String playerName, long balance) {
 		Text balanceText = Text.builder("EconomyLite � ").color(TextColors.GOLD).build();
 		String label = EconomyLite.access.currencyPlural;
-		if(balance==1) label = EconomyLite.access.currencySingular;
+		if(FixedPoint.isOne(balance)) label = EconomyLite.access.currencySingular;
 		
 		balanceText = balanceText.toBuilder().append(basicText("Successfully set ",TextColors.YELLOW)).build();
 		balanceText = balanceText.toBuilder().append(basicText(playerName+"'s",TextColors.GREEN)).build();
 		balanceText = balanceText.toBuilder().append(basicText(" balance to ",TextColors.YELLOW)).build();
-		balanceText = balanceText.toBuilder().append(basicText(balance+" ",TextColors.GREEN)).build();
+		balanceText = balanceText.toBuilder().append(basicText(FixedPoint.format(balance)+" ",TextColors.GREEN)).build();
 		balanceText = balanceText.toBuilder().append(basicText(label+"!",TextColors.DARK_GREEN)).build();
 		
 		return balanceText;
@@ -105,7 +110,7 @@ public class TextUtils {
 		return text;
 	}
 	
-	public static Text payOptionPlayer(String playerName, int amount) {
+	public static Text payOptionPlayer(String playerName, long amount) {
 		Text text = Text.builder("[").color(TextColors.GRAY).build();
 		
 		text = text.toBuilder().append(basicText("Pay ", TextColors.YELLOW)).build();
@@ -117,12 +122,12 @@ public class TextUtils {
 		hover = hover.toBuilder().append(basicText(playerName, TextColors.GREEN)).build();
 		
 		text = text.toBuilder().onHover(TextActions.showText(hover)).build();
-		text = text.toBuilder().onClick(TextActions.runCommand("/paySpecified player "+amount+" "+playerName)).build();
+		text = text.toBuilder().onClick(TextActions.runCommand("/paySpecified player "+FixedPoint.format(amount)+" "+playerName)).build();
 		
 		return text;
 	}
 	
-	public static Text payOptionBusiness(String businessName, int amount) {
+	public static Text payOptionBusiness(String businessName, long amount) {
 		Text text = Text.builder("[").color(TextColors.GRAY).build();
 		
 		text = text.toBuilder().append(basicText("Pay ", TextColors.YELLOW)).build();
@@ -134,7 +139,7 @@ public class TextUtils {
 		hover = hover.toBuilder().append(basicText(businessName, TextColors.GREEN)).build();
 		
 		text = text.toBuilder().onHover(TextActions.showText(hover)).build();
-		text = text.toBuilder().onClick(TextActions.runCommand("/paySpecified business "+amount+" "+businessName)).build();
+		text = text.toBuilder().onClick(TextActions.runCommand("/paySpecified business "+FixedPoint.format(amount)+" "+businessName)).build();
 		
 		return text;
 	}
@@ -152,13 +157,13 @@ public class TextUtils {
 		return balanceText;
 	}
 	
-	public static Text paySuccess(String who, int amount) {
+	public static Text paySuccess(String who, long amount) {
 		Text text = Text.builder("EconomyLite � ").color(TextColors.GOLD).build();
 		String label = EconomyLite.access.currencyPlural;
-		if(amount==1) label = EconomyLite.access.currencySingular;
+		if(FixedPoint.isOne(amount)) label = EconomyLite.access.currencySingular;
 		
 		text = text.toBuilder().append(basicText("Successfully payed ",TextColors.YELLOW)).build();
-		text = text.toBuilder().append(basicText(amount+" ",TextColors.GREEN)).build();
+		text = text.toBuilder().append(basicText(FixedPoint.format(amount)+" ",TextColors.GREEN)).build();
 		text = text.toBuilder().append(basicText(label,TextColors.DARK_GREEN)).build();
 		text = text.toBuilder().append(basicText(" to ",TextColors.YELLOW)).build();
 		text = text.toBuilder().append(basicText(who+"!",TextColors.GREEN)).build();
@@ -166,13 +171,13 @@ public class TextUtils {
 		return text;
 	}
 	
-	public static Text payed(String from, int amount) {
+	public static Text payed(String from, long amount) {
         Text text = Text.builder("EconomyLite � ").color(TextColors.GOLD).build();
         String label = EconomyLite.access.currencyPlural;
-        if(amount==1) label = EconomyLite.access.currencySingular;
+        if(FixedPoint.isOne(amount)) label = EconomyLite.access.currencySingular;
         
         text = text.toBuilder().append(basicText("You have received ",TextColors.YELLOW)).build();
-        text = text.toBuilder().append(basicText(amount+" ",TextColors.GREEN)).build();
+        text = text.toBuilder().append(basicText(FixedPoint.format(amount)+" ",TextColors.GREEN)).build();
         text = text.toBuilder().append(basicText(label,TextColors.DARK_GREEN)).build();
         text = text.toBuilder().append(basicText(" from ",TextColors.YELLOW)).build();
         text = text.toBuilder().append(basicText(from+"!",TextColors.GREEN)).build();
@@ -180,13 +185,13 @@ public class TextUtils {
         return text;
     }
 	
-	public static Text bPayed(String from, int amount, String business) {
+	public static Text bPayed(String from, long amount, String business) {
         Text text = Text.builder("EconomyLite � ").color(TextColors.GOLD).build();
         String label = EconomyLite.access.currencyPlural;
-        if(amount==1) label = EconomyLite.access.currencySingular;
+        if(FixedPoint.isOne(amount)) label = EconomyLite.access.currencySingular;
         
         text = text.toBuilder().append(basicText(business+" has received ",TextColors.YELLOW)).build();
-        text = text.toBuilder().append(basicText(amount+" ",TextColors.GREEN)).build();
+        text = text.toBuilder().append(basicText(FixedPoint.format(amount)+" ",TextColors.GREEN)).build();
         text = text.toBuilder().append(basicText(label,TextColors.DARK_GREEN)).build();
         text = text.toBuilder().append(basicText(" from ",TextColors.YELLOW)).build();
         text = text.toBuilder().append(basicText(from+"!",TextColors.GREEN)).build();
@@ -274,13 +279,13 @@ public class TextUtils {
 		return text;
 	}
 	
-	public static Text transferSuccess(String businessName, int amount) {
+	public static Text transferSuccess(String businessName, long amount) {
 		Text text = Text.builder("EconomyLite � ").color(TextColors.GOLD).build();
 		String label = EconomyLite.access.currencyPlural;
-		if(amount==1) label = EconomyLite.access.currencySingular;
+		if(FixedPoint.isOne(amount)) label = EconomyLite.access.currencySingular;
 		
 		text = text.toBuilder().append(basicText("Successfully transfered ",TextColors.YELLOW)).build();
-		text = text.toBuilder().append(basicText(amount+" ",TextColors.GREEN)).build();
+		text = text.toBuilder().append(basicText(FixedPoint.format(amount)+" ",TextColors.GREEN)).build();
 		text = text.toBuilder().append(basicText(label,TextColors.DARK_GREEN)).build();
 		text = text.toBuilder().append(basicText(" from ",TextColors.YELLOW)).build();
 		text = text.toBuilder().append(basicText(businessName,TextColors.GREEN)).build();
@@ -0,0 +1,216 @@
+package me.Flibio.EconomyLite.Utils;
+
+import me.Flibio.EconomyLite.EconomyLite;
+import me.Flibio.EconomyLite.Events.BalanceChangeEvent;
+import me.Flibio.EconomyLite.Utils.FileManager.FileType;
+import ninja.leaping.configurate.ConfigurationNode;
+
+import org.slf4j.Logger;
+import org.spongepowered.api.service.economy.transaction.ResultType;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public class TransferEngine {
+
+	public enum AccountType {
+		PLAYER,BUSINESS
+	}
+
+	private PlayerManager playerManager;
+	private BusinessManager businessManager;
+	private FileManager fileManager;
+	private Logger logger = EconomyLite.access.logger;
+
+	/**
+	 * Moves currency between two EconomyLite accounts in a single step.
+	 *
+	 * With MySQL both balances are changed in one transaction, otherwise both accounts are locked
+	 * (always in the same order) while the resident balances are changed. With write-behind a transfer
+	 * between a player and a business writes the player's balance first and is then made in MySQL.
+	 */
+	public TransferEngine() {
+		this.playerManager = EconomyLite.getPlayerManager();
+		this.businessManager = EconomyLite.getBusinessManager();
+		this.fileManager = EconomyLite.getFileManager();
+	}
+
+	/**
+	 * Transfers currency from one account to another
+	 * @param fromType
+	 * 	Type of the account the currency is taken from
+	 * @param from
+	 * 	UUID or business name of the account the currency is taken from
+	 * @param toType
+	 * 	Type of the account receiving the currency
+	 * @param to
+	 * 	UUID or business name of the account receiving the currency
+	 * @param amount
+	 * 	Amount of currency to transfer
+	 * @return
+	 * 	Result of the transfer, nothing is changed unless it is SUCCESS
+	 */
+	public ResultType transfer(AccountType fromType, String from, AccountType toType, String to, long amount) {
+		if(amount<0) return ResultType.FAILED;
+		ResultType result;
+		if(EconomyLite.getWriteBehind()!=null) {
+			result = transferWriteBehind(fromType, from, toType, to, amount);
+		} else if(EconomyLite.access.sqlEnabled) {
+			result = EconomyLite.getMySQL().transfer(fromType, from, toType, to, amount, FixedPoint.getMaxBalance());
+			if(result.equals(ResultType.SUCCESS)) {
+				if(fromType.equals(AccountType.PLAYER)) playerManager.adjustCachedBalance(from, -amount);
+				if(toType.equals(AccountType.PLAYER)) playerManager.adjustCachedBalance(to, amount);
+			}
+		} else {
+			result = transferResident(fromType, from, toType, to, amount);
+		}
+		if(result.equals(ResultType.SUCCESS)) {
+			if(fromType.equals(AccountType.PLAYER)) EconomyLite.access.game.getEventManager().post(new BalanceChangeEvent(from));
+			if(toType.equals(AccountType.PLAYER)) EconomyLite.access.game.getEventManager().post(new BalanceChangeEvent(to));
+		}
+		return result;
+	}
+
+	/**
+	 * Adds an amount to many accounts of the same type at once
+	 * @param type
+	 * 	Type of the accounts
+	 * @param deltas
+	 * 	UUID or business name of each account, mapped to the amount to add(negative to remove)
+	 * @return
+	 * 	Result of the change for every account
+	 */
+	public HashMap<String, ResultType> applyDeltas(AccountType type, Map<String, Long> deltas) {
+		HashMap<String, ResultType> results = new HashMap<String, ResultType>();
+		if(deltas.isEmpty()) return results;
+		//Player balances are changed in memory while write-behind is enabled
+		boolean resident = !EconomyLite.access.sqlEnabled||(type.equals(AccountType.PLAYER)&&EconomyLite.getWriteBehind()!=null);
+		if(!resident) {
+			//Accounts which don't exist are FAILED, the others fail only on their balance limits
+			HashMap<String, ResultType> applied = EconomyLite.getMySQL().addBalances(type, deltas, FixedPoint.getMaxBalance());
+			for(Map.Entry<String, Long> delta : deltas.entrySet()) {
+				String id = delta.getKey();
+				ResultType result = applied==null ? ResultType.FAILED : applied.get(id);
+				if(result.equals(ResultType.SUCCESS)&&type.equals(AccountType.PLAYER)) playerManager.adjustCachedBalance(id, delta.getValue());
+				results.put(id, result);
+			}
+		} else {
+			//Change every resident balance, then persist them together
+			for(Map.Entry<String, Long> delta : deltas.entrySet()) {
+				String id = delta.getKey();
+				long amount = delta.getValue();
+				Object lock = getLock(type, id);
+				if(lock==null) {
+					results.put(id, ResultType.FAILED);
+					continue;
+				}
+				synchronized(lock) {
+					if(add(type, id, amount)) {
+						results.put(id, ResultType.SUCCESS);
+					} else {
+						results.put(id, amount<0 ? ResultType.ACCOUNT_NO_FUNDS : ResultType.ACCOUNT_NO_SPACE);
+					}
+				}
+			}
+			if(type.equals(AccountType.PLAYER)) {
+				for(Map.Entry<String, ResultType> result : results.entrySet()) {
+					if(result.getValue().equals(ResultType.SUCCESS)) playerManager.writeCachedBalance(result.getKey());
+				}
+			} else {
+				fileManager.saveFile(FileType.BUSINESS_DATA, fileManager.getFile(FileType.BUSINESS_DATA));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Gets a key which gives every account a fixed place in the locking order
+	 * @param type
+	 * 	Type of the account
+	 * @param id
+	 * 	UUID or business name of the account
+	 * @return
+	 * 	The ordering key of the account
+	 */
+	public static String orderKey(AccountType type, String id) {
+		return type.name()+":"+id.toLowerCase(Locale.ROOT);
+	}
+
+	private ResultType transferResident(AccountType fromType, String from, AccountType toType, String to, long amount) {
+		Object fromLock = getLock(fromType, from);
+		Object toLock = getLock(toType, to);
+		if(fromLock==null||toLock==null) return ResultType.FAILED;
+		//Always lock the accounts in the same order so two transfers can't deadlock
+		boolean fromFirst = orderKey(fromType, from).compareTo(orderKey(toType, to))<=0;
+		synchronized(fromFirst ? fromLock : toLock) {
+			synchronized(fromFirst ? toLock : fromLock) {
+				if(!add(fromType, from, -amount)) return ResultType.ACCOUNT_NO_FUNDS;
+				if(!add(toType, to, amount)) {
+					//Give the currency back
+					if(!add(fromType, from, amount)) {
+						logger.error("Error giving back "+amount+" to "+from+" after a failed transfer!");
+						return ResultType.FAILED;
+					}
+					return ResultType.ACCOUNT_NO_SPACE;
+				}
+			}
+		}
+		//Persist both accounts, the data files batch these into a single write
+		if(fromType.equals(AccountType.PLAYER)) playerManager.writeCachedBalance(from);
+		if(toType.equals(AccountType.PLAYER)) playerManager.writeCachedBalance(to);
+		if(fromType.equals(AccountType.BUSINESS)||toType.equals(AccountType.BUSINESS)) {
+			fileManager.saveFile(FileType.BUSINESS_DATA, fileManager.getFile(FileType.BUSINESS_DATA));
+		}
+		return ResultType.SUCCESS;
+	}
+
+	private ResultType transferWriteBehind(AccountType fromType, String from, AccountType toType, String to, long amount) {
+		boolean fromPlayer = fromType.equals(AccountType.PLAYER);
+		boolean toPlayer = toType.equals(AccountType.PLAYER);
+		//Player balances are in memory and business balances are in MySQL, a transfer never changes both separately
+		if(fromPlayer&&toPlayer) return transferResident(fromType, from, toType, to, amount);
+		MySQLManager mySQL = EconomyLite.getMySQL();
+		if(!fromPlayer&&!toPlayer) return mySQL.transfer(fromType, from, toType, to, amount, FixedPoint.getMaxBalance());
+		//Write the player's balance now, so both balances change in one MySQL transaction
+		String player = fromPlayer ? from : to;
+		long change = fromPlayer ? -amount : amount;
+		WriteBehindQueue writeBehind = EconomyLite.getWriteBehind();
+		Object lock = playerManager.getBalanceLock(player);
+		if(lock==null) return ResultType.FAILED;
+		synchronized(lock) {
+			//A flush running at the same time could write an older balance over the transfer
+			synchronized(writeBehind) {
+				long balance = playerManager.getBalance(player);
+				if(balance<0||!mySQL.upsertBalance(player, balance)) return ResultType.FAILED;
+				ResultType result = mySQL.transfer(fromType, from, toType, to, amount, FixedPoint.getMaxBalance());
+				if(!result.equals(ResultType.SUCCESS)) return result;
+				//MySQL checked the same limits, so the cached balance can always follow
+				if(!playerManager.addToCachedBalance(player, change)) {
+					logger.error("Error updating the cached balance of "+player+" after a transfer!");
+				}
+				playerManager.writeCachedBalance(player);
+			}
+		}
+		return ResultType.SUCCESS;
+	}
+
+	private Object getLock(AccountType type, String id) {
+		if(type.equals(AccountType.PLAYER)) {
+			return playerManager.getBalanceLock(id);
+		} else {
+			return businessManager.getBusinessNode(id);
+		}
+	}
+
+	//Must be called while holding the account's lock
+	private boolean add(AccountType type, String id, long amount) {
+		if(type.equals(AccountType.PLAYER)) {
+			return playerManager.addToCachedBalance(id, amount);
+		} else {
+			ConfigurationNode business = businessManager.getBusinessNode(id);
+			if(business==null) return false;
+			return businessManager.addToBalance(business, amount);
+		}
+	}
+}
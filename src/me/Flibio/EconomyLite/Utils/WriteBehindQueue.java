@@ -0,0 +1,169 @@
+package me.Flibio.EconomyLite.Utils;
+
+import me.Flibio.EconomyLite.EconomyLite;
+
+import org.slf4j.Logger;
+import org.spongepowered.api.scheduler.Task;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class WriteBehindQueue {
+
+	//How long a failed flush waits before trying again during shutdown
+	private static final long RETRY_MILLIS = 500;
+
+	//UUID -> newest balance which has not been written to MySQL yet
+	private ConcurrentHashMap<String, Long> pending = new ConcurrentHashMap<String, Long>();
+	private AtomicBoolean flushScheduled = new AtomicBoolean(false);
+	private MySQLManager mySQL;
+	private BalanceJournal journal;
+	private Task flushTask;
+	private long flushIntervalMillis;
+	private int batchSize;
+	private volatile boolean closed = false;
+
+	private Logger logger = EconomyLite.access.logger;
+
+	/**
+	 * Collects player balance changes in memory and writes them to MySQL in batches.
+	 *
+	 * Only the newest balance of each player is kept, so many changes to one balance become a single write.
+	 * While this is enabled the balance cache is the authority on player balances, so the database
+	 * must not be shared with another server.
+	 * @param mySQL
+	 * 	The MySQL manager to write the balances with
+	 * @param flushIntervalMillis
+	 * 	Most time a balance change waits before it is written
+	 * @param batchSize
+	 * 	Number of pending balances which causes an early write
+	 */
+	public WriteBehindQueue(MySQLManager mySQL, long flushIntervalMillis, int batchSize) {
+		this.mySQL = mySQL;
+		this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Journals every pending balance to disk, so changes that were not written yet survive a crash
+	 * @param file
+	 * 	The journal file
+	 * @param compactAfter
+	 * 	Number of records after which every pending balance is written and the journal is emptied
+	 * @return
+	 * 	If the journal was opened successfully
+	 */
+	public boolean enableJournal(File file, int compactAfter) {
+		BalanceJournal balanceJournal = new BalanceJournal(file, compactAfter, new BalanceJournal.Store() {
+			@Override
+			public void restore(String uuid, long balance) {
+				pending.put(uuid, balance);
+			}
+
+			@Override
+			public boolean snapshot() {
+				return flush();
+			}
+		});
+		if(!balanceJournal.open()) return false;
+		journal = balanceJournal;
+		return true;
+	}
+
+	/**
+	 * Starts writing the pending balances on an interval
+	 */
+	public void start() {
+		flushTask = EconomyLite.access.game.getScheduler().createTaskBuilder().execute(() -> {
+			flush();
+		}).async().interval(flushIntervalMillis, TimeUnit.MILLISECONDS).submit(EconomyLite.access);
+	}
+
+	/**
+	 * Queues the new balance of a player to be written to MySQL
+	 * @param uuid
+	 * 	UUID of the player
+	 * @param balance
+	 * 	The player's new balance
+	 */
+	public void enqueue(String uuid, long balance) {
+		pending.put(uuid, balance);
+		if(journal!=null) journal.append(uuid, balance);
+		//Write early once enough balances are waiting
+		if(pending.size()>=batchSize&&!closed&&flushScheduled.compareAndSet(false, true)) {
+			EconomyLite.access.game.getScheduler().createTaskBuilder().execute(() -> {
+				flushScheduled.set(false);
+				flush();
+			}).async().submit(EconomyLite.access);
+		}
+	}
+
+	/**
+	 * Gets a balance which has not been written to MySQL yet
+	 * @param uuid
+	 * 	UUID of the player
+	 * @return
+	 * 	The pending balance(-1 if nothing is pending for the player)
+	 */
+	public long getPending(String uuid) {
+		Long balance = pending.get(uuid);
+		return balance==null ? -1 : balance;
+	}
+
+	/**
+	 * Writes the pending balances, stopping at the first batch which fails
+	 * @return
+	 * 	If every balance which was pending was written
+	 */
+	public synchronized boolean flush() {
+		HashMap<String, Long> batch = new HashMap<String, Long>();
+		for(Map.Entry<String, Long> balance : pending.entrySet()) {
+			batch.put(balance.getKey(), balance.getValue());
+			if(batch.size()>=batchSize) {
+				if(!write(batch)) return false;
+				batch.clear();
+			}
+		}
+		return batch.isEmpty()||write(batch);
+	}
+
+	/**
+	 * Writes every pending balance, then closes the journal.
+	 *
+	 * If MySQL can't be reached before the timeout, the balances are kept in the journal (when enabled) for the next start.
+	 * @param timeoutMillis
+	 * 	Most time to spend retrying failed writes
+	 */
+	public void close(long timeoutMillis) {
+		closed = true;
+		if(flushTask!=null) flushTask.cancel();
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while(!flush()||!pending.isEmpty()) {
+			if(System.currentTimeMillis()>=deadline) break;
+			try {
+				Thread.sleep(RETRY_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		if(!pending.isEmpty()) {
+			logger.error(pending.size()+" balances could not be written to MySQL!");
+			if(journal==null) logger.error("Enable MySQL.Write-Behind.Journal to keep them when this happens.");
+		}
+		if(journal!=null) journal.close();
+	}
+
+	private boolean write(HashMap<String, Long> batch) {
+		if(!mySQL.upsertBalances(batch)) return false;
+		//Balances which changed again while writing stay pending
+		for(Map.Entry<String, Long> balance : batch.entrySet()) {
+			pending.remove(balance.getKey(), balance.getValue());
+		}
+		return true;
+	}
+}
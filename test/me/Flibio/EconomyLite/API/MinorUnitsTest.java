@@ -0,0 +1,55 @@
+package me.Flibio.EconomyLite.API;
+
+import static org.junit.Assert.assertEquals;
+
+import me.Flibio.EconomyLite.Utils.FixedPoint;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class MinorUnitsTest {
+
+	@Before
+	public void setUp() {
+		FixedPoint.configure(2, 1000);
+	}
+
+	@After
+	public void tearDown() {
+		FixedPoint.configure(0, 1000000);
+	}
+
+	@Test
+	public void parseRoundsHalfUp() {
+		assertEquals(1250, MinorUnits.parse("12.5"));
+		assertEquals(1250, MinorUnits.parse("12.50"));
+		assertEquals(1, MinorUnits.parse("0.005"));
+		assertEquals(0, MinorUnits.parse("0.004"));
+		assertEquals(-100, MinorUnits.parse("-1"));
+	}
+
+	@Test
+	public void parseRejectsInvalidAmounts() {
+		assertEquals(MinorUnits.INVALID, MinorUnits.parse("abc"));
+		assertEquals(MinorUnits.INVALID, MinorUnits.parse(""));
+		//Does not fit in a long once scaled
+		assertEquals(MinorUnits.INVALID, MinorUnits.parse("100000000000000000000"));
+	}
+
+	@Test
+	public void toMinorWithoutFractionDigits() {
+		FixedPoint.configure(0, 1000);
+		assertEquals(2, MinorUnits.toMinor(new BigDecimal("1.5")));
+		assertEquals(1, MinorUnits.toMinor(new BigDecimal("1.49")));
+		assertEquals(12, MinorUnits.toMinor(BigDecimal.valueOf(12)));
+	}
+
+	@Test
+	public void toDecimalKeepsFractionDigits() {
+		assertEquals(new BigDecimal("12.50"), MinorUnits.toDecimal(1250));
+		assertEquals(1250, MinorUnits.toMinor(MinorUnits.toDecimal(1250)));
+	}
+}
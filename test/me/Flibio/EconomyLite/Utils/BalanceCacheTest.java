@@ -0,0 +1,75 @@
+package me.Flibio.EconomyLite.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BalanceCacheTest {
+
+	private UUID uuid = UUID.randomUUID();
+
+	@Test
+	public void addNeedsCachedBalance() {
+		BalanceCache cache = new BalanceCache();
+		assertEquals(-1, cache.add(uuid, 5, 100));
+		assertFalse(cache.contains(uuid));
+	}
+
+	@Test
+	public void addStaysWithinBounds() {
+		BalanceCache cache = new BalanceCache();
+		cache.put(uuid, 10);
+		assertEquals(15, cache.add(uuid, 5, 20));
+		assertEquals(-1, cache.add(uuid, 10, 20));
+		assertEquals(-1, cache.add(uuid, -16, 20));
+		//A refused change leaves the balance as it was
+		assertEquals(15, cache.get(uuid));
+		assertEquals(0, cache.add(uuid, -15, 20));
+	}
+
+	@Test
+	public void addDetectsOverflow() {
+		BalanceCache cache = new BalanceCache();
+		cache.put(uuid, Long.MAX_VALUE - 1);
+		assertEquals(-1, cache.add(uuid, 5, Long.MAX_VALUE));
+		assertEquals(Long.MAX_VALUE - 1, cache.get(uuid));
+	}
+
+	@Test
+	public void concurrentAddsNeverPassTheMax() throws InterruptedException {
+		BalanceCache cache = new BalanceCache();
+		cache.put(uuid, 0);
+		AtomicInteger successes = new AtomicInteger();
+		ArrayList<Thread> threads = new ArrayList<Thread>();
+		for(int i = 0; i < 8; i++) {
+			Thread thread = new Thread(() -> {
+				for(int j = 0; j < 1000; j++) {
+					if(cache.add(uuid, 1, 5000)>=0) successes.incrementAndGet();
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(5000, cache.get(uuid));
+		assertEquals(5000, successes.get());
+	}
+
+	@Test
+	public void lockSurvivesInvalidation() {
+		BalanceCache cache = new BalanceCache();
+		cache.put(uuid, 10);
+		Object lock = cache.getLock(uuid);
+		cache.invalidate(uuid);
+		assertEquals(-1, cache.get(uuid));
+		assertSame(lock, cache.getLock(uuid));
+	}
+}
@@ -0,0 +1,130 @@
+package me.Flibio.EconomyLite.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import me.Flibio.EconomyLite.EconomyLite;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.UUID;
+
+public class BalanceJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File file;
+	private String first = UUID.randomUUID().toString();
+	private String second = UUID.randomUUID().toString();
+	private String third = UUID.randomUUID().toString();
+
+	@BeforeClass
+	public static void setUpLogger() {
+		//The journal logs through the plugin instance
+		if(EconomyLite.access==null) {
+			EconomyLite.access = new EconomyLite();
+			EconomyLite.access.logger = LoggerFactory.getLogger("EconomyLite");
+		}
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		file = new File(folder.getRoot(), "data.journal");
+	}
+
+	@Test
+	public void replaysLatestBalances() {
+		writeJournal();
+		MapStore store = new MapStore(true);
+		BalanceJournal journal = new BalanceJournal(file, 1000, store);
+		assertTrue(journal.open());
+		assertEquals(3, store.balances.size());
+		assertEquals(Long.valueOf(7), store.balances.get(first));
+		assertEquals(Long.valueOf(20), store.balances.get(second));
+		assertEquals(Long.valueOf(30), store.balances.get(third));
+		//The replayed balances were saved, so the journal starts over
+		assertEquals(1, store.snapshots);
+		assertEquals(0, file.length());
+		journal.close();
+	}
+
+	@Test
+	public void keepsJournalWhenSnapshotFails() {
+		writeJournal();
+		assertEquals(4 * 32, file.length());
+	}
+
+	@Test
+	public void stopsAtDamagedRecord() throws IOException {
+		writeJournal();
+		try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			//Change the balance of the second record without updating its checksum
+			raf.seek(32 + 16);
+			raf.write(0x7f);
+		}
+		MapStore store = new MapStore(false);
+		BalanceJournal journal = new BalanceJournal(file, 1000, store);
+		assertTrue(journal.open());
+		assertEquals(1, store.balances.size());
+		assertEquals(Long.valueOf(5), store.balances.get(first));
+		journal.close();
+	}
+
+	@Test
+	public void stopsAtPartialRecord() throws IOException {
+		writeJournal();
+		try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(2 * 32 + 10);
+		}
+		MapStore store = new MapStore(false);
+		BalanceJournal journal = new BalanceJournal(file, 1000, store);
+		assertTrue(journal.open());
+		assertEquals(2, store.balances.size());
+		assertFalse(store.balances.containsKey(third));
+		journal.close();
+	}
+
+	//Writes four records and keeps them, as a crash before the snapshot would
+	private void writeJournal() {
+		BalanceJournal journal = new BalanceJournal(file, 1000, new MapStore(false));
+		assertTrue(journal.open());
+		journal.append(first, 5);
+		journal.append(second, 20);
+		journal.append(third, 30);
+		journal.append(first, 7);
+		journal.close();
+	}
+
+	private static class MapStore implements BalanceJournal.Store {
+
+		private HashMap<String, Long> balances = new HashMap<String, Long>();
+		private boolean snapshotSucceeds;
+		private int snapshots = 0;
+
+		private MapStore(boolean snapshotSucceeds) {
+			this.snapshotSucceeds = snapshotSucceeds;
+		}
+
+		@Override
+		public void restore(String uuid, long balance) {
+			balances.put(uuid, balance);
+		}
+
+		@Override
+		public boolean snapshot() {
+			snapshots++;
+			return snapshotSucceeds;
+		}
+	}
+}
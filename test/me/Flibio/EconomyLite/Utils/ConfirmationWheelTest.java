@@ -0,0 +1,53 @@
+package me.Flibio.EconomyLite.Utils;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ConfirmationWheelTest {
+
+	@Test
+	public void expiresAfterTimeout() {
+		ConfirmationWheel wheel = new ConfirmationWheel(2);
+		wheel.open("Shop");
+		wheel.tick();
+		assertTrue(wheel.isOpen("Shop"));
+		wheel.tick();
+		assertFalse(wheel.isOpen("Shop"));
+	}
+
+	@Test
+	public void namesAreNotCaseSensitive() {
+		ConfirmationWheel wheel = new ConfirmationWheel(2);
+		wheel.open("Shop");
+		assertTrue(wheel.isOpen("SHOP"));
+		wheel.close("shop");
+		assertFalse(wheel.isOpen("Shop"));
+	}
+
+	@Test
+	public void reopeningRestartsTimeout() {
+		ConfirmationWheel wheel = new ConfirmationWheel(2);
+		wheel.open("Shop");
+		wheel.tick();
+		wheel.open("Shop");
+		wheel.tick();
+		assertTrue(wheel.isOpen("Shop"));
+		wheel.tick();
+		assertFalse(wheel.isOpen("Shop"));
+	}
+
+	@Test
+	public void closedConfirmationStaysClosed() {
+		ConfirmationWheel wheel = new ConfirmationWheel(1);
+		wheel.open("Shop");
+		wheel.close("Shop");
+		wheel.tick();
+		wheel.open("Bakery");
+		assertFalse(wheel.isOpen("Shop"));
+		assertTrue(wheel.isOpen("Bakery"));
+		wheel.clear();
+		assertFalse(wheel.isOpen("Bakery"));
+	}
+}
@@ -0,0 +1,76 @@
+package me.Flibio.EconomyLite.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FixedPointTest {
+
+	@Before
+	public void setUp() {
+		//Two fraction digits, at most 1000.00
+		FixedPoint.configure(2, 1000);
+	}
+
+	@After
+	public void tearDown() {
+		FixedPoint.configure(0, 1000000);
+	}
+
+	@Test
+	public void addStaysInRange() {
+		assertEquals(100000, FixedPoint.add(99999, 1));
+		assertEquals(0, FixedPoint.add(1, -1));
+		assertEquals(-1, FixedPoint.add(100000, 1));
+		assertEquals(-1, FixedPoint.add(0, -1));
+	}
+
+	@Test
+	public void addDetectsOverflow() {
+		FixedPoint.configure(0, Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, FixedPoint.add(Long.MAX_VALUE - 1, 1));
+		assertEquals(-1, FixedPoint.add(Long.MAX_VALUE, 1));
+		assertEquals(-1, FixedPoint.add(Long.MIN_VALUE, -1));
+	}
+
+	@Test
+	public void inRange() {
+		assertTrue(FixedPoint.inRange(0));
+		assertTrue(FixedPoint.inRange(100000));
+		assertFalse(FixedPoint.inRange(-1));
+		assertFalse(FixedPoint.inRange(100001));
+	}
+
+	@Test
+	public void configureClampsDigitsAndMax() {
+		FixedPoint.configure(20, Long.MAX_VALUE);
+		assertEquals(8, FixedPoint.getFractionDigits());
+		//The highest balance no longer fits once it is scaled, so it is capped
+		assertEquals(Long.MAX_VALUE, FixedPoint.getMaxBalance());
+		FixedPoint.configure(-1, -5);
+		assertEquals(0, FixedPoint.getFractionDigits());
+		assertEquals(0, FixedPoint.getMaxBalance());
+	}
+
+	@Test
+	public void convertsWholeUnits() {
+		assertEquals(1200, FixedPoint.fromWhole(12));
+		assertEquals(12, FixedPoint.toWhole(1299));
+		assertTrue(FixedPoint.isOne(100));
+		assertFalse(FixedPoint.isOne(1));
+		assertEquals(100, FixedPoint.getScaleFactor(0));
+		assertEquals(1, FixedPoint.getScaleFactor(2));
+	}
+
+	@Test
+	public void format() {
+		assertEquals("12.50", FixedPoint.format(1250));
+		assertEquals("0.05", FixedPoint.format(5));
+		FixedPoint.configure(0, 1000);
+		assertEquals("1250", FixedPoint.format(1250));
+	}
+}
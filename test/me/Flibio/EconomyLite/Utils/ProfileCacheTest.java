@@ -0,0 +1,61 @@
+package me.Flibio.EconomyLite.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+public class ProfileCacheTest {
+
+	private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+	private UUID steve = UUID.randomUUID();
+	private UUID alex = UUID.randomUUID();
+	private UUID notch = UUID.randomUUID();
+
+	@Test
+	public void looksUpBothWays() {
+		ProfileCache cache = new ProfileCache(10, HOUR);
+		cache.put(steve, "Steve");
+		assertEquals("Steve", cache.getName(steve));
+		assertEquals(steve, cache.getUUID("STEVE"));
+		assertNull(cache.getUUID("Alex"));
+	}
+
+	@Test
+	public void entriesExpire() {
+		ProfileCache cache = new ProfileCache(10, 0);
+		cache.put(steve, "Steve");
+		assertNull(cache.getName(steve));
+		assertNull(cache.getUUID("Steve"));
+	}
+
+	@Test
+	public void dropsLeastRecentlyUsed() {
+		ProfileCache cache = new ProfileCache(2, HOUR);
+		cache.put(steve, "Steve");
+		cache.put(alex, "Alex");
+		//Steve is now more recently used than Alex
+		cache.getName(steve);
+		cache.put(notch, "Notch");
+		assertNull(cache.getName(alex));
+		assertNull(cache.getUUID("Alex"));
+		assertEquals("Steve", cache.getName(steve));
+		assertEquals(notch, cache.getUUID("Notch"));
+	}
+
+	@Test
+	public void followsNameChanges() {
+		ProfileCache cache = new ProfileCache(10, HOUR);
+		cache.put(steve, "Steve");
+		cache.put(steve, "Steve2");
+		assertNull(cache.getUUID("Steve"));
+		//The old name was taken by someone else
+		cache.put(alex, "Steve2");
+		assertNull(cache.getName(steve));
+		assertEquals(alex, cache.getUUID("steve2"));
+	}
+}